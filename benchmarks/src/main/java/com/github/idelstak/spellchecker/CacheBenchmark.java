@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups of a Zipf-distributed query stream in a {@link Dictionary}, with
+ * and without a {@link LookupCache} in front of it. A capacity of zero runs
+ * the plain tree descent.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheBenchmark {
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    @Param({"0", "1024", "16384"})
+    int capacity;
+
+    Dictionary dictionary;
+    String[] queries;
+    int next;
+
+    @Setup
+    public void setUp() {
+        String[] words = Corpus.sortedWords(size);
+        dictionary = new Dictionary(words);
+        if (capacity > 0) {
+            dictionary.enableCache(capacity);
+        }
+        queries = Corpus.zipfian(words, 1 << 20, 50);
+    }
+
+    @TearDown
+    public void tearDown() {
+        LookupCache cache = dictionary.getCache();
+        if (cache != null) {
+            System.out.printf("%nCache hit rate: %.3f%n", cache.getHitRate());
+        }
+    }
+
+    @Benchmark
+    public boolean exists() {
+        String query = queries[next];
+        next = (next + 1) & (queries.length - 1);
+        return dictionary.exists(query);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups in a {@link ConcurrentDictionary} from three threads while a
+ * fourth adds and deletes words. The writer pauses between updates to hold
+ * its rate near {@code writesPerSecond}; zero lets it run flat out.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentDictionaryBenchmark {
+
+    @Param({"100000"})
+    int size;
+
+    @Param({"0", "1000", "100000"})
+    int writesPerSecond;
+
+    ConcurrentDictionary dictionary;
+    String[] words;
+    String[] fresh;
+
+    @Setup
+    public void setUp() {
+        words = Corpus.sortedWords(size);
+        dictionary = new ConcurrentDictionary(new Dictionary(words));
+        words = Corpus.shuffled(words);
+        fresh = Corpus.missingWords(4096);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int next;
+
+        int next(int length) {
+            int index = next;
+            next = index + 1 == length ? 0 : index + 1;
+            return index;
+        }
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public boolean read(Cursor cursor) {
+        return dictionary.exists(words[cursor.next(words.length)]);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public boolean write(Cursor cursor) {
+        String word = fresh[cursor.next(fresh.length)];
+        dictionary.add(word, "meaning");
+        boolean deleted = dictionary.delete(word);
+        if (writesPerSecond > 0) {
+            long pause = TimeUnit.SECONDS.toNanos(1) / writesPerSecond;
+            long until = System.nanoTime() + pause;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+        }
+        return deleted;
+    }
+}
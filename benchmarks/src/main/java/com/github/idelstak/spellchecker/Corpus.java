@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates the word lists and texts the benchmarks run on.
+ * <p>
+ * Everything is derived from a fixed seed, so every run and every fork sees
+ * the same data.
+ */
+final class Corpus {
+
+    static final long SEED = 0x5EED;
+
+    private Corpus() {
+    }
+
+    /**
+     * Generates distinct lowercase words of 2 to 12 letters, in ascending
+     * order.
+     */
+    static String[] sortedWords(int count) {
+        Random random = new Random(SEED);
+        String[] words = new String[count];
+        int n = 0;
+        while (n < count) {
+            int target = Math.min(count, n + count / 4 + 16);
+            while (n < target) {
+                words[n++] = word(random);
+            }
+            Arrays.sort(words, 0, n);
+            int unique = 0;
+            for (int i = 0; i < n; i++) {
+                if (unique == 0 || !words[unique - 1].equals(words[i])) {
+                    words[unique++] = words[i];
+                }
+            }
+            n = unique;
+        }
+        return words;
+    }
+
+    /**
+     * Returns a copy of the specified words in a random order.
+     */
+    static String[] shuffled(String[] words) {
+        String[] copy = words.clone();
+        Random random = new Random(SEED);
+        for (int i = copy.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String swap = copy[i];
+            copy[i] = copy[j];
+            copy[j] = swap;
+        }
+        return copy;
+    }
+
+    /**
+     * Generates words that are not in {@link #sortedWords(int)}: they all
+     * contain a digit.
+     */
+    static String[] missingWords(int count) {
+        Random random = new Random(SEED + 1);
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            String word = word(random);
+            int at = random.nextInt(word.length());
+            words[i] = word.substring(0, at) + (char) ('0' + random.nextInt(10)) + word.substring(at);
+        }
+        return words;
+    }
+
+    /**
+     * Generates plain text of about {@code bytes} bytes, drawing words from
+     * the specified list with a Zipf-like skew, as in natural language, and
+     * misspelling about one word in {@code missEvery}.
+     */
+    static byte[] text(String[] words, int bytes, int missEvery) {
+        Random random = new Random(SEED + 2);
+        StringBuilder sb = new StringBuilder(bytes + 64);
+        int column = 0;
+        while (sb.length() < bytes) {
+            // Squaring a uniform draw favours the low ranks, which stand in
+            // for the most frequent words.
+            double u = random.nextDouble();
+            String word = words[(int) (u * u * u * words.length)];
+            if (missEvery > 0 && random.nextInt(missEvery) == 0) {
+                word = word + "q";
+            }
+            if (column == 0) {
+                word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+            }
+            sb.append(word);
+            column += word.length() + 1;
+            if (column > 72) {
+                sb.append(".\n");
+                column = 0;
+            } else {
+                sb.append(random.nextInt(10) == 0 ? ", " : " ");
+            }
+        }
+        return sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Draws {@code count} queries whose ranks follow Zipf's law with exponent
+     * 1, as word frequencies in natural language do. The word at rank
+     * {@code r} is drawn in proportion to {@code 1 / r}; about one query in
+     * {@code missEvery} is a word from {@link #missingWords(int)} instead.
+     */
+    static String[] zipfian(String[] words, int count, int missEvery) {
+        double[] cumulative = new double[words.length];
+        double total = 0;
+        for (int rank = 0; rank < words.length; rank++) {
+            total += 1.0 / (rank + 1);
+            cumulative[rank] = total;
+        }
+        // Spread the popular ranks over the alphabet, so that the hot words
+        // are not all in one corner of the tree.
+        String[] byRank = shuffled(words);
+        String[] misses = missingWords(Math.max(1, count / Math.max(1, missEvery)));
+        Random random = new Random(SEED + 3);
+        String[] queries = new String[count];
+        for (int i = 0; i < count; i++) {
+            if (missEvery > 0 && random.nextInt(missEvery) == 0) {
+                queries[i] = misses[random.nextInt(misses.length)];
+            } else {
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                queries[i] = byRank[Math.min(words.length - 1, rank < 0 ? -rank - 1 : rank)];
+            }
+        }
+        return queries;
+    }
+
+    private static String word(Random random) {
+        char[] chars = new char[2 + random.nextInt(11)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
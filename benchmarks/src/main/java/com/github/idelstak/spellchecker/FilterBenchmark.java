@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups dominated by absent words, as in code comments, logs and
+ * identifiers, with and without a {@link BloomFilter} in front of the tree
+ * (see {@link Dictionary#enableFilter()}). The queries are drawn from
+ * {@link Corpus#zipfian(String[], int, int)}, so the words that are present
+ * follow a natural skew.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterBenchmark {
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    // One query in this many is absent; 1 makes them all absent.
+    @Param({"1", "2", "10"})
+    int missEvery;
+
+    Dictionary plain;
+    Dictionary filtered;
+    byte[][] queries;
+    int next;
+
+    @Setup
+    public void setUp() {
+        String[] words = Corpus.sortedWords(size);
+        plain = new Dictionary(words);
+        filtered = new Dictionary(words);
+        filtered.enableFilter();
+        String[] strings = Corpus.zipfian(words, 1 << 16, missEvery);
+        queries = new byte[strings.length][];
+        for (int i = 0; i < strings.length; i++) {
+            queries[i] = strings[i].getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Benchmark
+    public boolean plain() {
+        byte[] query = queries[index()];
+        return plain.exists(query, 0, query.length);
+    }
+
+    @Benchmark
+    public boolean filtered() {
+        byte[] query = queries[index()];
+        return filtered.exists(query, 0, query.length);
+    }
+
+    private int index() {
+        int index = next;
+        next = index + 1 == queries.length ? 0 : index + 1;
+        return index;
+    }
+}
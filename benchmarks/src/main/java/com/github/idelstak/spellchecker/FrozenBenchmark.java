@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups in the node tree of a {@link Dictionary} against the same words
+ * after {@link Dictionary#freeze()}, in random order so that the large
+ * sizes do not fit in the CPU caches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FrozenBenchmark {
+
+    @Param({"100000", "1000000", "4000000"})
+    int size;
+
+    Dictionary tree;
+    FrozenDictionary frozen;
+    String[] hits;
+    String[] misses;
+    int next;
+
+    @Setup
+    public void setUp() {
+        String[] words = Corpus.sortedWords(size);
+        tree = new Dictionary(words);
+        frozen = tree.freeze();
+        hits = Corpus.shuffled(words);
+        misses = Corpus.missingWords(4096);
+    }
+
+    @Benchmark
+    public boolean treeHit() {
+        return tree.exists(hits[index(hits.length)]);
+    }
+
+    @Benchmark
+    public boolean frozenHit() {
+        return frozen.exists(hits[index(hits.length)]);
+    }
+
+    @Benchmark
+    public boolean treeMiss() {
+        return tree.exists(misses[index(misses.length)]);
+    }
+
+    @Benchmark
+    public boolean frozenMiss() {
+        return frozen.exists(misses[index(misses.length)]);
+    }
+
+    private int index(int length) {
+        int index = next;
+        next = index + 1 == length ? 0 : index + 1;
+        return index;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a {@link SpellCheckServer} with concurrent clients and reports
+ * throughput and latency percentiles.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar com.github.idelstak.spellchecker.ServerLoadGenerator
+ * [--url <base url>] [--clients <n>] [--seconds <n>] [--batch <texts>]}.
+ * Without {@code --url} a server over a generated dictionary of 100,000
+ * words is started in-process. A batch of zero sends single texts to
+ * {@code /check}; anything else sends that many texts per request to
+ * {@code /batch}.
+ */
+public class ServerLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int clients = 64;
+        int seconds = 10;
+        int batch = 0;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--url" -> url = args[i + 1];
+                case "--clients" -> clients = Integer.parseInt(args[i + 1]);
+                case "--seconds" -> seconds = Integer.parseInt(args[i + 1]);
+                case "--batch" -> batch = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        String[] words = Corpus.sortedWords(100_000);
+        SpellCheckServer server = null;
+        if (url == null) {
+            // As the serve command does; see SpellCheckServer.run.
+            if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            }
+            server = new SpellCheckServer(new Dictionary(words).freeze(), 0);
+            server.start();
+            url = "http://127.0.0.1:" + server.getPort();
+        }
+        byte[] text = Corpus.text(words, 2048, 20);
+        byte[] body = batch == 0 ? text : batchBody(text, batch);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + (batch == 0 ? "/check" : "/batch")))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        ExecutorService executor = SpellCheckServer.newThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        LatencyHistogram latencies = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        // Warm up for a fifth of the run, then measure the rest.
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds) / 5;
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(seconds);
+        for (int c = 0; c < clients; c++) {
+            executor.execute(() -> {
+                while (true) {
+                    long start = System.nanoTime();
+                    if (start >= end) {
+                        return;
+                    }
+                    try {
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        if (response.statusCode() != 200) {
+                            errors.increment();
+                        }
+                    } catch (Exception ex) {
+                        errors.increment();
+                    }
+                    if (start >= warmupEnd) {
+                        latencies.record(System.nanoTime() - start);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds * 2L + 60, TimeUnit.SECONDS);
+        if (server != null) {
+            server.close();
+        }
+        double rate = latencies.getCount() / (double) seconds;
+        System.out.printf("%d clients, %s: %.0f requests/s (%.0f texts/s), %d errors%n",
+                clients, batch == 0 ? "/check" : "/batch of " + batch, rate, rate * Math.max(1, batch), errors.sum());
+        System.out.printf("latency p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                latencies.getValueAtQuantile(0.5) / 1e6, latencies.getValueAtQuantile(0.99) / 1e6, latencies.getMax() / 1e6);
+    }
+
+    private static byte[] batchBody(byte[] text, int count) {
+        byte[] length = (text.length + "\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] body = new byte[count * (length.length + text.length)];
+        for (int i = 0, at = 0; i < count; i++) {
+            System.arraycopy(length, 0, body, at, length.length);
+            at += length.length;
+            System.arraycopy(text, 0, body, at, text.length);
+            at += text.length;
+        }
+        return body;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * End-to-end spell checking of a generated text held in memory, and the
+ * tokenization underneath it.
+ * <p>
+ * The {@code bytes} counter reports throughput in bytes per second; divide
+ * by a million for MB/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpellCheckBenchmark {
+
+    @Param({"100000"})
+    int size;
+
+    @Param({"50"})
+    int missEvery;
+
+    Dictionary dictionary;
+    byte[] text;
+
+    @Setup
+    public void setUp() {
+        String[] words = Corpus.sortedWords(size);
+        dictionary = new Dictionary(words);
+        text = Corpus.text(words, 16 << 20, missEvery);
+    }
+
+    @Benchmark
+    public long check(Throughput throughput, Blackhole blackhole) throws IOException {
+        SpellChecker.Summary summary = new SpellChecker(dictionary)
+                .check(Channels.newChannel(new ByteArrayInputStream(text)), blackhole::consume);
+        throughput.bytes += summary.getBytes();
+        return summary.getMisspellings();
+    }
+
+    /**
+     * Tokenization alone, without lookups, which bounds the throughput of
+     * {@link #check(Throughput, Blackhole)}.
+     */
+    @Benchmark
+    public long tokenize(Throughput throughput) throws IOException {
+        Tokenizer tokenizer = new Tokenizer(Channels.newChannel(new ByteArrayInputStream(text)));
+        long letters = 0;
+        while (tokenizer.next()) {
+            letters += tokenizer.length();
+        }
+        throughput.bytes += tokenizer.offset();
+        return letters;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Spell-checks files and directory trees without user interaction.
+ * <p>
+ * Every file is cut into byte ranges that end on whitespace, so no word is
+ * split, and all the ranges of all the files are checked in parallel against
+ * one shared, read-only {@link Lexicon}. The results of a file are stitched
+ * back together in range order, and files are reported in sorted path order,
+ * so the output does not depend on scheduling. At most a fixed window of
+ * ranges is checked ahead of the one being reported, so memory does not grow
+ * with the size of the tree.
+ * <p>
+ * Usage: {@code check [--dictionary <file>] [--threads <n>] <file or
+ * directory>...}. A dictionary whose name ends in {@code .dict} is opened as
+ * a {@link MappedDictionary} snapshot; any other file is read as a word list
+ * and frozen into a {@link FrozenDictionary}.
+ */
+final class BatchSpellCheck {
+
+    static final long RANGE_SIZE = 8 << 20;
+    private static final int BOUNDARY_WINDOW = 1 << 16;
+    private final SpellChecker checker;
+    private final ExecutorService executor;
+    private final long rangeSize;
+    private final int window;
+
+    BatchSpellCheck(Lexicon lexicon, ExecutorService executor, long rangeSize, int window) {
+        this.checker = new SpellChecker(lexicon);
+        this.executor = executor;
+        this.rangeSize = rangeSize;
+        this.window = window;
+    }
+
+    /**
+     * Runs the {@code check} command.
+     *
+     * @param args the arguments that follow {@code check}.
+     *
+     * @return the exit status: {@code 0} if every word was found, {@code 1}
+     * if there were misspellings and {@code 2} on bad usage.
+     *
+     * @throws IOException if a file cannot be read.
+     */
+    static int run(String[] args) throws IOException {
+        Path dictionaryPath = Paths.get(System.getProperty("user.dir"), "Words.txt");
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> roots = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--dictionary" -> {
+                    if (++i == args.length) {
+                        return usage();
+                    }
+                    dictionaryPath = Paths.get(args[i]);
+                }
+                case "--threads" -> {
+                    if (++i == args.length) {
+                        return usage();
+                    }
+                    try {
+                        threads = Integer.parseInt(args[i]);
+                    } catch (NumberFormatException ex) {
+                        return usage();
+                    }
+                }
+                default ->
+                    roots.add(Paths.get(args[i]));
+            }
+        }
+        if (roots.isEmpty() || threads < 1) {
+            return usage();
+        }
+        Lexicon lexicon = dictionaryPath.toString().endsWith(".dict")
+                ? MappedDictionary.open(dictionaryPath)
+                : new DictionaryLoader().load(dictionaryPath).freeze();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            Totals totals = new BatchSpellCheck(lexicon, executor, RANGE_SIZE, 2 * threads).check(files(roots), System.out);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.println("%d misspellings in %d files, %d words, %.1f MB/s".formatted(
+                    totals.misspellings, totals.files, totals.tokens, totals.bytes / 1e6 / Math.max(seconds, 1e-9)));
+            return totals.misspellings == 0 ? 0 : 1;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int usage() {
+        System.err.println("Usage: check [--dictionary <file>] [--threads <n>] <file or directory>...");
+        return 2;
+    }
+
+    /**
+     * Lists the regular files under the specified paths, in sorted order.
+     */
+    static List<Path> files(List<Path> roots) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path root : roots) {
+            try ( Stream<Path> walk = Files.walk(root)) {
+                files.addAll(walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList()));
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Checks the specified files and prints one line per misspelling, in the
+     * form {@code path:line:column: word}.
+     *
+     * @param files the files to check.
+     * @param out where to print the misspellings.
+     *
+     * @return the totals over all the files.
+     *
+     * @throws IOException if a file cannot be read.
+     */
+    Totals check(List<Path> files, PrintStream out) throws IOException {
+        Totals totals = new Totals();
+        Deque<Report> reports = new ArrayDeque<>();
+        int inFlight = 0;
+        for (Path file : files) {
+            long[] bounds = ranges(file);
+            Report report = new Report(file);
+            reports.addLast(report);
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                while (inFlight >= window) {
+                    reportNext(reports, totals, out);
+                    inFlight--;
+                }
+                long from = bounds[i];
+                long to = bounds[i + 1];
+                report.ranges.addLast(CompletableFuture.supplyAsync(() -> checkRange(file, from, to), executor));
+                inFlight++;
+            }
+            report.submitted = true;
+        }
+        while (!reports.isEmpty()) {
+            if (reports.peekFirst().ranges.isEmpty()) {
+                reports.removeFirst();
+                totals.files++;
+            } else {
+                reportNext(reports, totals, out);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Waits for the oldest range still checked and prints its misspellings,
+     * turning range-relative positions into file positions. Files whose every
+     * range has been reported are dropped from the front of the queue.
+     */
+    private static void reportNext(Deque<Report> reports, Totals totals, PrintStream out) throws IOException {
+        Report report = reports.peekFirst();
+        while (report.ranges.isEmpty()) {
+            reports.removeFirst();
+            totals.files++;
+            report = reports.peekFirst();
+        }
+        Range range;
+        try {
+            range = report.ranges.removeFirst().join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw ex;
+        }
+        for (Misspelling m : range.misspellings) {
+            long line = m.getLine() + report.lineBase;
+            long column = m.getLine() == 1 ? m.getColumn() + report.columnBase : m.getColumn();
+            out.println("%s:%d:%d: %s".formatted(report.file, line, column, m.getWord()));
+        }
+        SpellChecker.Summary summary = range.summary;
+        if (summary.getEndLine() > 1) {
+            report.lineBase += summary.getEndLine() - 1;
+            report.columnBase = summary.getEndColumn() - 1;
+        } else {
+            report.columnBase += summary.getEndColumn() - 1;
+        }
+        totals.tokens += summary.getTokens();
+        totals.misspellings += summary.getMisspellings();
+        totals.bytes += summary.getBytes();
+        if (report.submitted && report.ranges.isEmpty()) {
+            reports.removeFirst();
+            totals.files++;
+        }
+    }
+
+    private Range checkRange(Path file, long from, long to) {
+        try ( FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(from);
+            List<Misspelling> misspellings = new ArrayList<>();
+            SpellChecker.Summary summary = checker.check(new Bounded(channel, to - from), misspellings::add);
+            return new Range(misspellings, summary);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Splits a file into ranges of roughly {@code rangeSize} bytes. Each range
+     * but the last ends just after an ASCII whitespace byte, or failing that
+     * any ASCII byte that is neither a letter nor an apostrophe.
+     */
+    private long[] ranges(Path file) throws IOException {
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        try ( FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer window = ByteBuffer.allocate(BOUNDARY_WINDOW);
+            long position = 0;
+            while (size - position > rangeSize) {
+                long next = boundary(channel, position + rangeSize, window);
+                if (next < 0 || next >= size) {
+                    break;
+                }
+                bounds.add(next);
+                position = next;
+            }
+            bounds.add(size);
+        }
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long boundary(FileChannel channel, long from, ByteBuffer window) throws IOException {
+        window.clear();
+        int read = channel.read(window, from);
+        int fallback = -1;
+        for (int i = 0; i < read; i++) {
+            byte b = window.get(i);
+            if (b == ' ' || b == '\n' || b == '\t' || b == '\r') {
+                return from + i + 1;
+            }
+            if (fallback < 0 && b >= 0 && b != '\'' && !((b | 0x20) >= 'a' && (b | 0x20) <= 'z')) {
+                fallback = i;
+            }
+        }
+        return fallback < 0 ? -1 : from + fallback + 1;
+    }
+
+    /**
+     * Totals over a batch.
+     */
+    static final class Totals {
+
+        long files;
+        long tokens;
+        long misspellings;
+        long bytes;
+    }
+
+    /**
+     * The ranges of one file that are still to be reported, and where the
+     * next of them starts in the file.
+     */
+    private static final class Report {
+
+        private final Path file;
+        private final Deque<CompletableFuture<Range>> ranges = new ArrayDeque<>();
+        private boolean submitted;
+        private long lineBase;
+        private long columnBase;
+
+        Report(Path file) {
+            this.file = file;
+        }
+    }
+
+    private static final class Range {
+
+        private final List<Misspelling> misspellings;
+        private final SpellChecker.Summary summary;
+
+        Range(List<Misspelling> misspellings, SpellChecker.Summary summary) {
+            this.misspellings = misspellings;
+            this.summary = summary;
+        }
+    }
+
+    /**
+     * Reads at most a given number of bytes from the current position of a
+     * channel.
+     */
+    private static final class Bounded implements ReadableByteChannel {
+
+        private final FileChannel channel;
+        private long remaining;
+
+        Bounded(FileChannel channel, long remaining) {
+            this.channel = channel;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int limit = dst.limit();
+            if (dst.remaining() > remaining) {
+                dst.limit(dst.position() + (int) remaining);
+            }
+            try {
+                int read = channel.read(dst);
+                if (read > 0) {
+                    remaining -= read;
+                }
+                return read;
+            } finally {
+                dst.limit(limit);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+/**
+ * A blocked Bloom filter over the words of a {@link Dictionary}, consulted
+ * before the tree so that most misses never reach it.
+ * <p>
+ * A word sets {@value #PROBES} bits, all within one 512-bit block chosen by
+ * its hash, so a query reads a single cache line. A query is certainly
+ * absent if any of its bits is clear; otherwise the tree has to decide.
+ * Filled to capacity, at {@value #BITS_PER_WORD} bits per word, it lets
+ * about one absent word in a hundred through. {@link Dictionary} sizes it
+ * for half as many words again as it holds, so a fresh filter lets through
+ * about one in seven hundred, rising towards one in a hundred as words are
+ * added.
+ * <p>
+ * Bits cannot be taken back, so a deleted word keeps answering "maybe"
+ * until the filter is rebuilt; {@link Dictionary} does that once enough
+ * words were deleted or added to raise the false positive rate noticeably.
+ * <p>
+ * Words are hashed with ASCII case folded on the fly, as in
+ * {@link LookupCache}, and a word held as bytes hashes as its
+ * {@code String} does. Like {@link LookupCache}, a filter counts its queries
+ * and must not be used from more than one thread at a time.
+ */
+final class BloomFilter {
+
+    static final int BITS_PER_WORD = 10;
+    static final int PROBES = 7;
+    private static final int BLOCK_LONGS = 8;
+    private static final int BLOCK_MASK = BLOCK_LONGS * Long.SIZE - 1;
+    private final long[] bits;
+    private final int blocks;
+    private final int capacity;
+    private int added;
+    private int deleted;
+    private long negatives;
+    private long falsePositives;
+
+    /**
+     * @param capacity the number of words the filter is sized for.
+     */
+    BloomFilter(int capacity) {
+        this.capacity = Math.max(capacity, BLOCK_LONGS * Long.SIZE / BITS_PER_WORD);
+        blocks = (int) (((long) this.capacity * BITS_PER_WORD + BLOCK_MASK) / (BLOCK_MASK + 1));
+        bits = new long[blocks * BLOCK_LONGS];
+    }
+
+    /**
+     * Hashes a word or a query prepared by {@link CaseFolding#prepare(String)}.
+     */
+    static long hash(String word) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < word.length(); i++) {
+            h = (h ^ CaseFolding.fold(word.charAt(i))) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Hashes a word held as in {@link Lexicon#exists(byte[], int, int)} to
+     * the value {@link #hash(String)} gives for it, decoding other
+     * characters than ASCII into UTF-16 units on the fly.
+     */
+    static long hash(byte[] word, int offset, int length) {
+        long h = 0xcbf29ce484222325L;
+        int end = offset + length;
+        for (int i = offset; i < end;) {
+            if (word[i] >= 0) {
+                h = (h ^ CaseFolding.fold((char) word[i++])) * 0x100000001b3L;
+                continue;
+            }
+            int n = CaseFolding.sequenceLength(word[i]);
+            int cp = i + n <= end ? CaseFolding.decode(word, i, n) : -1;
+            if (cp < 0) {
+                cp = 0xFFFD;
+                n = 1;
+            }
+            i += n;
+            if (Character.isSupplementaryCodePoint(cp)) {
+                h = (h ^ Character.highSurrogate(cp)) * 0x100000001b3L;
+                h = (h ^ Character.lowSurrogate(cp)) * 0x100000001b3L;
+            } else {
+                h = (h ^ cp) * 0x100000001b3L;
+            }
+        }
+        return mix(h);
+    }
+
+    void add(long hash) {
+        int base = block(hash);
+        long positions = hash * 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < PROBES; i++, positions >>>= 9) {
+            int bit = (int) positions & BLOCK_MASK;
+            bits[base + (bit >>> 6)] |= 1L << bit;
+        }
+        added++;
+    }
+
+    /**
+     * @param hash the value of {@link #hash(String)} for the query.
+     *
+     * @return {@code false} if the query is certainly not in the dictionary.
+     */
+    boolean mightContain(long hash) {
+        int base = block(hash);
+        long positions = hash * 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < PROBES; i++, positions >>>= 9) {
+            int bit = (int) positions & BLOCK_MASK;
+            if ((bits[base + (bit >>> 6)] & 1L << bit) == 0) {
+                negatives++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts a query that {@link #mightContain(long)} let through but the
+     * dictionary did not hold.
+     */
+    void recordFalsePositive() {
+        falsePositives++;
+    }
+
+    void recordDelete() {
+        deleted++;
+    }
+
+    /**
+     * Tells whether the filter should be rebuilt: it holds more words than
+     * it was sized for, or a quarter of its capacity are deleted words whose
+     * bits are still set.
+     */
+    boolean isStale() {
+        return added > capacity || deleted > capacity / 4;
+    }
+
+    /**
+     * @return the share of absent words let through so far, or {@code 0}
+     * if no absent word was queried.
+     */
+    double getFalsePositiveRate() {
+        long absent = negatives + falsePositives;
+        return absent == 0 ? 0 : (double) falsePositives / absent;
+    }
+
+    /**
+     * Estimates the share of absent words that get through, from the share
+     * of bits that are set. The estimate runs low by a fifth to a third,
+     * since it assumes the words are spread evenly over the blocks.
+     *
+     * @return the expected false positive rate.
+     */
+    double getExpectedFalsePositiveRate() {
+        long set = 0;
+        for (long word : bits) {
+            set += Long.bitCount(word);
+        }
+        return Math.pow((double) set / (bits.length * (double) Long.SIZE), PROBES);
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    private int block(long hash) {
+        return (int) (((hash >>> 32) * blocks) >>> 32) * BLOCK_LONGS;
+    }
+
+    // The finalizer of MurmurHash3, so that every bit of the result depends
+    // on every letter.
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93e1a85ec53L;
+        return h ^ h >>> 33;
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.text.Normalizer;
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * Case handling shared by the dictionary lookup paths.
+ * <p>
+ * Dictionary keys are stored lowercase, so a query only has to be folded on
+ * its own side of a comparison. ASCII queries are folded one character at a
+ * time while comparing, which keeps lookups free of allocation.
+ * <p>
+ * Other words are folded one code point at a time with
+ * {@link Character#toLowerCase(int)}, which does not depend on the default
+ * locale, so a Turkish {@code I} folds to {@code i} on every machine. The
+ * right single quotation mark folds to the ASCII apostrophe. The result is
+ * then put in Unicode normalization form C, so that a letter typed with a
+ * combining accent matches the same letter stored precomposed.
+ */
+final class CaseFolding {
+
+    private CaseFolding() {
+    }
+
+    /**
+     * Converts the specified word to the lowercase form used for keys.
+     *
+     * @param word the word to convert.
+     *
+     * @return the lowercase word; the same instance if it already was
+     * lowercase.
+     */
+    static String normalize(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) >= 0x80) {
+                StringBuilder folded = new StringBuilder(word.length());
+                for (int j = 0; j < word.length(); j += Character.charCount(word.codePointAt(j))) {
+                    folded.appendCodePoint(fold(word.codePointAt(j)));
+                }
+                return Normalizer.normalize(folded, Normalizer.Form.NFC);
+            }
+        }
+        return word.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Prepares a query for {@link #compare(String, String)}.
+     * <p>
+     * ASCII queries are returned as they are, since they can be folded on the
+     * fly. Anything else is lowercased once up front.
+     *
+     * @param word the query.
+     *
+     * @return a value that can be compared against stored keys.
+     */
+    static String prepare(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) >= 0x80) {
+                return normalize(word);
+            }
+        }
+        return word;
+    }
+
+    /**
+     * Compares a prepared query with a stored, lowercase key.
+     *
+     * @param query a value returned by {@link #prepare(String)}.
+     * @param key a dictionary key.
+     *
+     * @return a negative number, zero or a positive number as the folded
+     * query is less than, equal to or greater than the key, in the order of
+     * {@link String#compareTo(String)}.
+     */
+    static int compare(String query, String key) {
+        int length = Math.min(query.length(), key.length());
+        for (int i = 0; i < length; i++) {
+            char q = fold(query.charAt(i));
+            char k = key.charAt(i);
+            if (q != k) {
+                return q - k;
+            }
+        }
+        return query.length() - key.length();
+    }
+
+    /**
+     * Compares a query held as UTF-8 bytes with a stored, lowercase key, in
+     * the same order as {@link #compare(String, String)}. ASCII letters may
+     * be in any case; anything else must already be folded as by
+     * {@link #normalize(String)}. Other characters are decoded into UTF-16
+     * units on the fly.
+     */
+    static int compare(byte[] query, int offset, int length, String key) {
+        int end = offset + length;
+        int i = offset;
+        int k = 0;
+        // The second unit of a supplementary character, once the first one
+        // has been compared.
+        char low = 0;
+        while (i < end || low != 0) {
+            char q;
+            if (low != 0) {
+                q = low;
+                low = 0;
+            } else if (query[i] >= 0) {
+                q = fold((char) query[i++]);
+            } else {
+                int n = sequenceLength(query[i]);
+                int cp = i + n <= end ? decode(query, i, n) : -1;
+                if (cp < 0) {
+                    cp = 0xFFFD;
+                    n = 1;
+                }
+                i += n;
+                if (Character.isSupplementaryCodePoint(cp)) {
+                    q = Character.highSurrogate(cp);
+                    low = Character.lowSurrogate(cp);
+                } else {
+                    q = (char) cp;
+                }
+            }
+            if (k == key.length()) {
+                return 1;
+            }
+            char c = key.charAt(k++);
+            if (q != c) {
+                return q - c;
+            }
+        }
+        return k - key.length();
+    }
+
+    static char fold(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * Folds one code point as {@link #normalize(String)} does.
+     */
+    static int fold(int codePoint) {
+        return codePoint == '\u2019' ? '\'' : Character.toLowerCase(codePoint);
+    }
+
+    /**
+     * Tells whether a word folded as by {@link #fold(int)} is in
+     * normalization form C, without creating any objects.
+     * <p>
+     * This is the quick check of Unicode (UAX #15), made conservative where
+     * Java does not expose the data it needs. It fails for a character that
+     * never occurs in form C, or that may compose with the one before it,
+     * and for two combining marks in a row, since their canonical order
+     * cannot be checked. Text typed on ordinary keyboards passes.
+     *
+     * @param chars holds the word as UTF-16 units.
+     * @param length the number of units.
+     *
+     * @return {@code true} if the word is certainly in form C;
+     * {@code false} if it has to be normalized to be sure.
+     */
+    static boolean isComposed(char[] chars, int length) {
+        boolean mark = false;
+        for (int i = 0; i < length; i++) {
+            int cp = Character.codePointAt(chars, i, length);
+            if (cp < 0xC0) {
+                mark = false;
+                continue;
+            }
+            if (Unstable.CODE_POINTS.get(cp)) {
+                return false;
+            }
+            int type = Character.getType(cp);
+            boolean combining = type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK || type == Character.ENCLOSING_MARK;
+            if (combining && mark) {
+                return false;
+            }
+            mark = combining;
+            if (Character.isSupplementaryCodePoint(cp)) {
+                i++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of bytes of the UTF-8 sequence that starts with the
+     * specified byte; 1 for a byte that cannot start one
+     */
+    static int sequenceLength(int lead) {
+        lead &= 0xFF;
+        if (lead < 0xC0) {
+            return 1;
+        }
+        return lead < 0xE0 ? 2 : lead < 0xF0 ? 3 : lead < 0xF8 ? 4 : 1;
+    }
+
+    /**
+     * Decodes the UTF-8 sequence of {@code length} bytes at {@code index}.
+     *
+     * @return the code point, or {@code -1} if the bytes do not form a valid
+     * sequence.
+     */
+    static int decode(byte[] bytes, int index, int length) {
+        int b = bytes[index] & 0xFF;
+        if (length == 1) {
+            return b < 0x80 ? b : -1;
+        }
+        int cp = b & (0x7F >>> length);
+        for (int i = 1; i < length; i++) {
+            int c = bytes[index + i];
+            if ((c & 0xC0) != 0x80) {
+                return -1;
+            }
+            cp = cp << 6 | c & 0x3F;
+        }
+        // Overlong forms, surrogates and values past the last code point.
+        if (cp < (length == 2 ? 0x80 : length == 3 ? 0x800 : 0x10000) || cp > Character.MAX_CODE_POINT || cp >= 0xD800 && cp <= 0xDFFF) {
+            return -1;
+        }
+        return cp;
+    }
+
+    /**
+     * The characters that fail the quick check for form C: those that form C
+     * replaces, and those that may compose with the character before them,
+     * which are the last characters of the canonical decompositions of the
+     * characters form C keeps. They are found by asking {@link Normalizer}
+     * about every character that has a decomposition, once, on first use.
+     */
+    private static final class Unstable {
+
+        static final BitSet CODE_POINTS = new BitSet();
+
+        static {
+            // No character outside these ranges decomposes.
+            scan(0xC0, 0x1FFFF);
+            scan(0x2F800, 0x2FA1F);
+        }
+
+        private static void scan(int from, int to) {
+            for (int cp = from; cp <= to; cp++) {
+                if (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE) {
+                    continue;
+                }
+                String c = Character.toString(cp);
+                String decomposed = Normalizer.normalize(c, Normalizer.Form.NFD);
+                if (decomposed.equals(c)) {
+                    continue;
+                }
+                if (!Normalizer.normalize(c, Normalizer.Form.NFC).equals(c)) {
+                    CODE_POINTS.set(cp);
+                } else {
+                    CODE_POINTS.set(decomposed.codePointBefore(decomposed.length()));
+                }
+            }
+        }
+    }
+}
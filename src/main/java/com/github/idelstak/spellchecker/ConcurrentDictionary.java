@@ -0,0 +1,313 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A thread-safe dictionary whose readers never block.
+ * <p>
+ * The words live in an immutable AVL tree. A writer never changes a node:
+ * it copies the path from the root to the node it adds or removes, then
+ * publishes the new root with a single volatile write. A reader takes
+ * whatever root is current and walks it undisturbed, so it sees every
+ * update either completely or not at all. Writers are serialized among
+ * themselves.
+ */
+final class ConcurrentDictionary implements Lexicon {
+
+    private volatile Version version;
+
+    ConcurrentDictionary() {
+        version = new Version(null, 0);
+    }
+
+    /**
+     * Creates a {@code ConcurrentDictionary} holding the words of the
+     * specified {@code Lexicon}.
+     *
+     * @param source the words to copy.
+     */
+    ConcurrentDictionary(Lexicon source) {
+        WordInfo[] infos = new WordInfo[source.getCount()];
+        int count = 0;
+        for (WordInfo info : source) {
+            if (count == infos.length) {
+                infos = Arrays.copyOf(infos, Math.max(16, count * 2));
+            }
+            infos[count++] = info;
+        }
+        version = new Version(build(infos, 0, count - 1), count);
+    }
+
+    private ConcurrentDictionary(Version version) {
+        this.version = version;
+    }
+
+    /**
+     * Returns a copy of this dictionary as it is now. Since no node is ever
+     * changed, the copy shares the whole tree and costs nothing to take;
+     * later updates to either dictionary do not affect the other.
+     *
+     * @return the copy.
+     */
+    ConcurrentDictionary snapshot() {
+        return new ConcurrentDictionary(version);
+    }
+
+    /**
+     * Adds a word, following the rules of
+     * {@link Dictionary#add(String, String)}.
+     *
+     * @param word the word to add.
+     * @param meaning its meaning.
+     *
+     * @return {@code true} if the word was inserted, or replaced one without
+     * a definition; otherwise {@code false}.
+     */
+    synchronized boolean add(String word, String meaning) {
+        word = CaseFolding.normalize(word);
+        Version current = version;
+        Node found = find(current.root, word);
+        if (found != null && !Dictionary.isUndefined(found.info.getMeaning())) {
+            return false;
+        }
+        int size = found == null ? current.size + 1 : current.size;
+        version = new Version(insert(current.root, new WordInfo(word, meaning)), size);
+        return true;
+    }
+
+    /**
+     * Removes a word.
+     *
+     * @param word the word to remove.
+     *
+     * @return {@code true} if the word was removed; {@code false} if it was
+     * not present.
+     */
+    synchronized boolean delete(String word) {
+        word = CaseFolding.normalize(word);
+        Version current = version;
+        if (find(current.root, word) == null) {
+            return false;
+        }
+        version = new Version(remove(current.root, word), current.size - 1);
+        return true;
+    }
+
+    @Override
+    public boolean exists(String word) {
+        return find(version.root, word) != null;
+    }
+
+    @Override
+    public boolean exists(byte[] word, int offset, int length) {
+        Node node = version.root;
+        while (node != null) {
+            int comp = CaseFolding.compare(word, offset, length, node.info.getWord());
+            if (comp == 0) {
+                return true;
+            }
+            node = comp < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    @Override
+    public String getMeaning(String word) {
+        Node node = find(version.root, word);
+        return node == null ? null : node.info.getMeaning();
+    }
+
+    @Override
+    public int getCount() {
+        return version.size;
+    }
+
+    /**
+     * Returns the entries in alphabetical order, as they were when this
+     * method was called; later updates do not affect the iteration.
+     */
+    @Override
+    public Iterator<WordInfo> iterator() {
+        Node root = version.root;
+        return new Iterator<>() {
+            private Node[] stack = new Node[16];
+            private int depth;
+
+            {
+                pushLeft(root);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return depth > 0;
+            }
+
+            @Override
+            public WordInfo next() {
+                if (depth == 0) {
+                    throw new NoSuchElementException();
+                }
+                Node node = stack[--depth];
+                stack[depth] = null;
+                pushLeft(node.right);
+                return node.info;
+            }
+
+            private void pushLeft(Node node) {
+                while (node != null) {
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, depth * 2);
+                    }
+                    stack[depth++] = node;
+                    node = node.left;
+                }
+            }
+        };
+    }
+
+    private static Node find(Node root, String word) {
+        String query = CaseFolding.prepare(word);
+        Node node = root;
+        while (node != null) {
+            int comp = CaseFolding.compare(query, node.info.getWord());
+            if (comp == 0) {
+                return node;
+            }
+            node = comp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    private static Node build(WordInfo[] infos, int lo, int hi) {
+        if (hi < lo) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        return new Node(infos[mid], build(infos, lo, mid - 1), build(infos, mid + 1, hi));
+    }
+
+    private static Node insert(Node node, WordInfo info) {
+        if (node == null) {
+            return new Node(info, null, null);
+        }
+        int comp = info.compareTo(node.info);
+        if (comp < 0) {
+            return balance(node.info, insert(node.left, info), node.right);
+        }
+        if (comp > 0) {
+            return balance(node.info, node.left, insert(node.right, info));
+        }
+        return new Node(info, node.left, node.right);
+    }
+
+    private static Node remove(Node node, String word) {
+        int comp = word.compareTo(node.info.getWord());
+        if (comp < 0) {
+            return balance(node.info, remove(node.left, word), node.right);
+        }
+        if (comp > 0) {
+            return balance(node.info, node.left, remove(node.right, word));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.info, node.left, removeFirst(node.right));
+    }
+
+    private static Node removeFirst(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.info, removeFirst(node.left), node.right);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * Joins two subtrees whose heights differ by at most two under a new
+     * node, rotating as needed to restore the AVL property.
+     */
+    private static Node balance(WordInfo info, Node left, Node right) {
+        int hl = height(left);
+        int hr = height(right);
+        if (hl > hr + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node(left.info, left.left, new Node(info, left.right, right));
+            }
+            return new Node(left.right.info,
+                    new Node(left.info, left.left, left.right.left),
+                    new Node(info, left.right.right, right));
+        }
+        if (hr > hl + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node(right.info, new Node(info, left, right.left), right.right);
+            }
+            return new Node(right.left.info,
+                    new Node(info, left, right.left.left),
+                    new Node(right.info, right.left.right, right.right));
+        }
+        return new Node(info, left, right);
+    }
+
+    /**
+     * A root together with the number of words under it, published as one.
+     */
+    private static final class Version {
+
+        private final Node root;
+        private final int size;
+
+        Version(Node root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+    }
+
+    private static final class Node {
+
+        private final WordInfo info;
+        private final Node left;
+        private final Node right;
+        private final int height;
+
+        Node(WordInfo info, Node left, Node right) {
+            this.info = info;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only {@link Lexicon} stored as a minimized acyclic word graph.
+ * <p>
+ * Words that share a prefix or a suffix share the states and transitions
+ * that spell it, and the whole graph lives in a handful of primitive arrays
+ * instead of one object per word. A lookup follows one transition per
+ * character.
+ * <p>
+ * Since minimization merges the final states of different words, meanings
+ * are not attached to states. Each word is instead numbered by its position
+ * in alphabetical order; every transition records how many words sort before
+ * the ones it leads to, so the number falls out of the lookup itself and
+ * indexes a side table of meanings.
+ */
+final class DawgDictionary implements Lexicon {
+
+    private final int root;
+    private final int count;
+    // The transitions of state s are at [first[s], first[s + 1]), sorted by
+    // label.
+    private final int[] first;
+    private final boolean[] terminal;
+    private final char[] labels;
+    private final int[] targets;
+    private final int[] before;
+    // Indexed by word number. Words without a definition have a null entry;
+    // the table itself is null when no word has one.
+    private final String[] meanings;
+
+    private DawgDictionary(Builder builder) {
+        root = builder.root;
+        count = builder.words;
+        first = Arrays.copyOf(builder.first, builder.states + 1);
+        terminal = Arrays.copyOf(builder.terminal, builder.states);
+        labels = Arrays.copyOf(builder.labels, builder.transitions);
+        targets = Arrays.copyOf(builder.targets, builder.transitions);
+        before = Arrays.copyOf(builder.before, builder.transitions);
+        meanings = builder.defined ? Arrays.copyOf(builder.meanings, builder.words) : null;
+    }
+
+    /**
+     * Builds a {@code DawgDictionary} holding the specified entries.
+     *
+     * @param sorted the entries, with lowercase words, in strictly ascending
+     * order; iterating a {@link Dictionary} yields exactly that.
+     *
+     * @return a new {@code DawgDictionary}.
+     *
+     * @throws IllegalArgumentException if the entries are not in strictly
+     * ascending order.
+     */
+    static DawgDictionary of(Iterable<WordInfo> sorted) {
+        Builder builder = new Builder();
+        for (WordInfo info : sorted) {
+            builder.add(info);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public boolean exists(String word) {
+        return indexOf(word) >= 0;
+    }
+
+    @Override
+    public String getMeaning(String word) {
+        int index = indexOf(word);
+        return index < 0 ? null : meaning(index);
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public Iterator<WordInfo> iterator() {
+        return new Words();
+    }
+
+    private int indexOf(String word) {
+        String query = CaseFolding.prepare(word);
+        int state = root;
+        int index = 0;
+        for (int i = 0; i < query.length(); i++) {
+            int transition = transition(state, CaseFolding.fold(query.charAt(i)));
+            if (transition < 0) {
+                return -1;
+            }
+            index += before[transition];
+            state = targets[transition];
+        }
+        return terminal[state] ? index : -1;
+    }
+
+    private int transition(int state, char label) {
+        int lo = first[state];
+        int hi = first[state + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char c = labels[mid];
+            if (c < label) {
+                lo = mid + 1;
+            } else if (c > label) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private String meaning(int index) {
+        String meaning = meanings == null ? null : meanings[index];
+        return meaning == null ? Dictionary.UNDEFINED_MEANING : meaning;
+    }
+
+    /**
+     * Walks the graph depth first, which visits the words in alphabetical
+     * order since the transitions of every state are sorted.
+     */
+    private final class Words implements Iterator<WordInfo> {
+
+        private int[] states = new int[16];
+        private int[] cursors = new int[16];
+        private char[] chars = new char[16];
+        private int depth;
+        private int index;
+        private WordInfo next;
+
+        Words() {
+            if (count > 0) {
+                push(root);
+                if (terminal[root]) {
+                    next = new WordInfo("", meaning(index++));
+                } else {
+                    advance();
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public WordInfo next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            WordInfo info = next;
+            advance();
+            return info;
+        }
+
+        private void advance() {
+            while (depth > 0) {
+                int state = states[depth - 1];
+                int transition = cursors[depth - 1];
+                if (transition < first[state + 1]) {
+                    cursors[depth - 1]++;
+                    if (depth > chars.length) {
+                        chars = Arrays.copyOf(chars, depth * 2);
+                    }
+                    chars[depth - 1] = labels[transition];
+                    int target = targets[transition];
+                    push(target);
+                    if (terminal[target]) {
+                        next = new WordInfo(new String(chars, 0, depth - 1), meaning(index++));
+                        return;
+                    }
+                } else {
+                    depth--;
+                }
+            }
+            next = null;
+        }
+
+        private void push(int state) {
+            if (depth == states.length) {
+                states = Arrays.copyOf(states, depth * 2);
+                cursors = Arrays.copyOf(cursors, depth * 2);
+            }
+            states[depth] = state;
+            cursors[depth] = first[state];
+            depth++;
+        }
+    }
+
+    /**
+     * Builds the graph from sorted input in a single pass, after Daciuk et
+     * al.
+     * <p>
+     * Only the states along the path of the last word added can still
+     * change. Once the next word leaves that path, the states it left behind
+     * are final and are either matched with an equivalent state in the
+     * register or appended to the arena.
+     */
+    private static final class Builder {
+
+        private int[] first = new int[1024];
+        private boolean[] terminal = new boolean[1024];
+        private int[] counts = new int[1024];
+        private char[] labels = new char[1024];
+        private int[] targets = new int[1024];
+        private int[] before = new int[1024];
+        private int states;
+        private int transitions;
+        // Open addressing table of state ids plus one; zero marks a free slot.
+        private int[] register = new int[1024];
+        private Pending[] path = {new Pending()};
+        private String previous = "";
+        private boolean started;
+        private String[] meanings = new String[1024];
+        private boolean defined;
+        private int words;
+        private int root;
+
+        void add(WordInfo info) {
+            String word = info.getWord();
+            if (started && previous.compareTo(word) >= 0) {
+                throw new IllegalArgumentException("Entries are not in strictly ascending order at \"" + word + "\"");
+            }
+            int prefix = 0;
+            int limit = Math.min(previous.length(), word.length());
+            while (prefix < limit && previous.charAt(prefix) == word.charAt(prefix)) {
+                prefix++;
+            }
+            freezeDownTo(prefix);
+            if (path.length <= word.length()) {
+                int old = path.length;
+                path = Arrays.copyOf(path, Math.max(word.length() + 1, old * 2));
+                for (int i = old; i < path.length; i++) {
+                    path[i] = new Pending();
+                }
+            }
+            for (int depth = prefix; depth < word.length(); depth++) {
+                path[depth].add(word.charAt(depth));
+                path[depth + 1].reset();
+            }
+            path[word.length()].terminal = true;
+            if (words == meanings.length) {
+                meanings = Arrays.copyOf(meanings, words * 2);
+            }
+            if (!Dictionary.UNDEFINED_MEANING.equals(info.getMeaning())) {
+                meanings[words] = info.getMeaning();
+                defined = true;
+            }
+            words++;
+            previous = word;
+            started = true;
+        }
+
+        DawgDictionary build() {
+            freezeDownTo(0);
+            root = freeze(path[0]);
+            return new DawgDictionary(this);
+        }
+
+        private void freezeDownTo(int depth) {
+            for (int d = previous.length(); d > depth; d--) {
+                path[d - 1].targets[path[d - 1].size - 1] = freeze(path[d]);
+            }
+        }
+
+        private int freeze(Pending state) {
+            int mask = register.length - 1;
+            for (int slot = hash(state) & mask;; slot = (slot + 1) & mask) {
+                int id = register[slot] - 1;
+                if (id < 0) {
+                    id = append(state);
+                    register[slot] = id + 1;
+                    if (states * 2 > register.length) {
+                        rehash();
+                    }
+                    return id;
+                }
+                if (matches(id, state)) {
+                    return id;
+                }
+            }
+        }
+
+        private int append(Pending state) {
+            int id = states;
+            if (id + 2 > first.length) {
+                first = Arrays.copyOf(first, first.length * 2);
+                terminal = Arrays.copyOf(terminal, first.length);
+                counts = Arrays.copyOf(counts, first.length);
+            }
+            if (transitions + state.size > labels.length) {
+                int capacity = Math.max(labels.length * 2, transitions + state.size);
+                labels = Arrays.copyOf(labels, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                before = Arrays.copyOf(before, capacity);
+            }
+            int reachable = state.terminal ? 1 : 0;
+            first[id] = transitions;
+            for (int i = 0; i < state.size; i++) {
+                labels[transitions] = state.labels[i];
+                targets[transitions] = state.targets[i];
+                before[transitions] = reachable;
+                reachable += counts[state.targets[i]];
+                transitions++;
+            }
+            first[id + 1] = transitions;
+            terminal[id] = state.terminal;
+            counts[id] = reachable;
+            states++;
+            return id;
+        }
+
+        private boolean matches(int id, Pending state) {
+            if (terminal[id] != state.terminal || first[id + 1] - first[id] != state.size) {
+                return false;
+            }
+            for (int i = 0, t = first[id]; i < state.size; i++, t++) {
+                if (labels[t] != state.labels[i] || targets[t] != state.targets[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash() {
+            register = new int[register.length * 2];
+            int mask = register.length - 1;
+            for (int id = 0; id < states; id++) {
+                int hash = terminal[id] ? 1 : 0;
+                for (int t = first[id]; t < first[id + 1]; t++) {
+                    hash = mix(hash, labels[t], targets[t]);
+                }
+                int slot = hash & mask;
+                while (register[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                register[slot] = id + 1;
+            }
+        }
+
+        private static int hash(Pending state) {
+            int hash = state.terminal ? 1 : 0;
+            for (int i = 0; i < state.size; i++) {
+                hash = mix(hash, state.labels[i], state.targets[i]);
+            }
+            return hash;
+        }
+
+        private static int mix(int hash, char label, int target) {
+            hash = hash * 31 + label;
+            hash = hash * 0x9E3779B1 + target;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    /**
+     * A state on the path of the last word added, still open to new
+     * transitions.
+     */
+    private static final class Pending {
+
+        private char[] labels = new char[4];
+        private int[] targets = new int[4];
+        private int size;
+        private boolean terminal;
+
+        void add(char label) {
+            if (size == labels.length) {
+                labels = Arrays.copyOf(labels, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+            }
+            labels[size] = label;
+            targets[size] = -1;
+            size++;
+        }
+
+        void reset() {
+            size = 0;
+            terminal = false;
+        }
+    }
+}
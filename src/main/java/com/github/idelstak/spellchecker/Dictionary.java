@@ -22,25 +22,154 @@
  */
 package com.github.idelstak.spellchecker;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-final class Dictionary {
+final class Dictionary implements Lexicon {
 
+    static final String UNDEFINED_MEANING = "Undefined word";
+    static final int MAX_SUGGESTION_DISTANCE = 2;
     private Node root;
     private int size;
+    private SuggestionIndex suggestions;
+    private LookupCache cache;
+    private HotWords hotWords;
+    private BloomFilter filter;
+    private int hotCapacity;
+    private HotWords.Layout layout;
+    private long countedLookups;
+    private int changesSinceHeight;
+    private MeaningStore meanings = new MeaningStore();
+    private final List<DictionaryListener> listeners = new ArrayList<>();
+    private final DictionaryMetrics metrics = new DictionaryMetrics();
 
     Dictionary(String[] data) {
+        this(data, System.nanoTime());
+    }
+
+    private Dictionary(String[] data, long start) {
+        this(sortedEntries(data));
+        metrics.recordLoad(System.nanoTime() - start);
+    }
+
+    private Dictionary(WordInfo[] sorted) {
+        root = buildFromSorted(sorted, 0, sorted.length - 1, 0, computeRedLevel(sorted.length), null);
+        size = sorted.length;
+        if (DictionaryMetrics.ENABLED) {
+            metrics.recordWords(size);
+            metrics.recordHeight(height());
+        }
+    }
+
+    /**
+     * Creates a {@code Dictionary} from entries that are already in ascending
+     * order.
+     * <p>
+     * The tree is built bottom-up in linear time, so it is balanced no matter
+     * how large the input is.
+     *
+     * @param infos the entries, with lowercase words, sorted by word and free
+     * of duplicates.
+     *
+     * @return a new {@code Dictionary} holding the specified entries.
+     *
+     * @throws IllegalArgumentException if the entries are not in strictly
+     * ascending order.
+     */
+    static Dictionary fromSorted(WordInfo[] infos) {
+        for (int i = 1; i < infos.length; i++) {
+            if (infos[i - 1].compareTo(infos[i]) >= 0) {
+                throw new IllegalArgumentException("Entries are not in strictly ascending order at index " + i);
+            }
+        }
+        return new Dictionary(Arrays.copyOf(infos, infos.length));
+    }
+
+    /**
+     * Parses one line of a word list.
+     * <p>
+     * A line is either a bare word, which gets the "Undefined word" meaning,
+     * or uses the format {@code word}:{@code meaning}, optionally followed by
+     * {@code :}{@code frequency}, a non-negative count of how often the word
+     * is used.
+     *
+     * @param line the line to parse.
+     *
+     * @return the parsed entry, or {@code null} if the line has a separator
+     * but no meaning.
+     */
+    static WordInfo parseLine(String line) {
+        if (line.contains(":")) {
+            String[] parts = line.split(":");
+            if (parts.length < 2) {
+                return null;
+            }
+            return new WordInfo(CaseFolding.normalize(parts[0]), parts[1], parts.length > 2 ? parseFrequency(parts[2]) : 0);
+        }
+        return new WordInfo(CaseFolding.normalize(line), UNDEFINED_MEANING);
+    }
+
+    /**
+     * Reads the frequency field of a line; anything other than a
+     * non-negative number counts as unknown, as it did before the field
+     * existed.
+     */
+    private static long parseFrequency(String field) {
+        try {
+            return Math.max(0, Long.parseLong(field.trim()));
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Picks the entry that survives when the same word occurs twice.
+     * <p>
+     * This is the rule applied by {@link #add(String, String)}: a word that
+     * already has a meaning is kept, while an "Undefined word" entry gives way
+     * to the later one.
+     *
+     * @param earlier the entry seen first.
+     * @param later the entry seen last.
+     *
+     * @return the entry to keep.
+     */
+    static WordInfo merge(WordInfo earlier, WordInfo later) {
+        return isUndefined(earlier.getMeaning()) ? later : earlier;
+    }
+
+    static boolean isUndefined(String meaning) {
+        return meaning.trim().equalsIgnoreCase(UNDEFINED_MEANING);
+    }
+
+    private static WordInfo[] sortedEntries(String[] data) {
+        WordInfo[] infos = new WordInfo[data.length];
+        int count = 0;
         for (String line : data) {
-            if (line.contains(":")) {
-                String[] parts = line.split(":");
-                if (parts.length > 1) {
-                    add(parts[0].toLowerCase(), parts[1]);
-                }
+            WordInfo info = parseLine(line);
+            if (info != null) {
+                infos[count++] = info;
+            }
+        }
+        // The sort is stable and runs in linear time on input that is
+        // already sorted, such as Words.txt.
+        Arrays.sort(infos, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique > 0 && infos[unique - 1].compareTo(infos[i]) == 0) {
+                infos[unique - 1] = merge(infos[unique - 1], infos[i]);
             } else {
-                add(line.toLowerCase(), "Undefined word");
+                infos[unique++] = infos[i];
             }
         }
+        return Arrays.copyOf(infos, unique);
     }
 
     /**
@@ -57,24 +186,44 @@ final class Dictionary {
      * Otherwise, it returns {@code false}.
      */
     boolean add(String word, String meaning) {
+        if (!DictionaryMetrics.ENABLED) {
+            return insert(word, meaning);
+        }
+        long start = System.nanoTime();
+        boolean added = insert(word, meaning);
+        metrics.recordAdd(System.nanoTime() - start);
+        if (added) {
+            publishShape();
+        }
+        return added;
+    }
+
+    private boolean insert(String word, String meaning) {
+        word = CaseFolding.normalize(word);
+        if (cache != null) {
+            cache.invalidate(word);
+        }
         Node found = findNode(root, word);
+        long frequency = 0;
         if (found != null) {
-            if (!found.getInfo().getMeaning().trim().equalsIgnoreCase("undefined word")) {
+            if (found.getMeaning() != MeaningStore.UNDEFINED && !isUndefined(meanings.get(found.getMeaning()))) {
                 return false;
             } else {
-                delete(word);
+                frequency = found.getFrequency();
+                remove(word);
             }
         }
-        WordInfo info = new WordInfo(word, meaning);
         if (root == null) {
-            root = new Node(info, null);
+            root = new Node(word, meanings.put(meaning), null);
+            root.setFrequency(frequency);
             size++;
+            added(word);
             return true;
         } else {
             Node node = root;
             int comp;
             while (true) {
-                comp = info.compareTo(node.getInfo());
+                comp = word.compareTo(node.getWord());
                 if (comp == 0) {
                     return false;
                 }
@@ -82,15 +231,23 @@ final class Dictionary {
                     if (node.getLeft() != null) {
                         node = node.getLeft();
                     } else {
-                        node.setLeft(new Node(info, node));
+                        Node child = new Node(word, meanings.put(meaning), node);
+                        child.setFrequency(frequency);
+                        node.setLeft(child);
+                        fixAfterInsertion(child);
                         size++;
+                        added(word);
                         return true;
                     }
                 } else if (node.getRight() != null) {
                     node = node.getRight();
                 } else {
-                    node.setRight(new Node(info, node));
+                    Node child = new Node(word, meanings.put(meaning), node);
+                    child.setFrequency(frequency);
+                    node.setRight(child);
+                    fixAfterInsertion(child);
                     size++;
+                    added(word);
                     return true;
                 }
             }
@@ -107,13 +264,43 @@ final class Dictionary {
      * Otherwise, it returns {@code false}.
      */
     boolean delete(String word) {
+        if (!DictionaryMetrics.ENABLED) {
+            return remove(word);
+        }
+        long start = System.nanoTime();
+        boolean removed = remove(word);
+        metrics.recordDelete(System.nanoTime() - start);
+        if (removed) {
+            publishShape();
+        }
+        return removed;
+    }
+
+    private boolean remove(String word) {
         Node node = Objects.requireNonNull(findNode(root, word));
+        String removed = node.getWord();
+        meanings.free(node.getMeaning());
         size--;
+        if (cache != null) {
+            cache.invalidate(removed);
+        }
+        if (suggestions != null) {
+            suggestions.remove(removed);
+        }
+        if (hotWords != null) {
+            hotWords.remove(removed);
+            layout = null;
+        }
         // If p has two children, replace p’s element with p’s successor’s
         // element, then make p reference that successor.
         if (node.getLeft() != null && node.getRight() != null) {
             Node successor = getSuccessor(node);
-            node.setInfo(successor.getInfo());
+            if (hotWords != null) {
+                hotWords.remove(successor.getWord());
+            }
+            node.setWord(successor.getWord());
+            node.setMeaning(successor.getMeaning());
+            node.setFrequency(successor.getFrequency());
             node = successor;
         } // p had two children
         // At this point, p has either no children or one child.
@@ -133,16 +320,41 @@ final class Dictionary {
             } else {
                 node.getParent().setRight(replacement);
             }
+            node.setLeft(null);
+            node.setRight(null);
+            node.setParent(null);
+            if (!node.isRed()) {
+                fixAfterDeletion(replacement);
+            }
         } // p has at least one child
         else if (node.getParent() == null) {
             root = null;
         } else {
-            if (node == node.getParent().getLeft()) {
-                node.getParent().setLeft(null);
-            } else {
-                node.getParent().setRight(null);
+            // Use p as a phantom replacement while rebalancing, then unlink it.
+            if (!node.isRed()) {
+                fixAfterDeletion(node);
+            }
+            if (node.getParent() != null) {
+                if (node == node.getParent().getLeft()) {
+                    node.getParent().setLeft(null);
+                } else if (node == node.getParent().getRight()) {
+                    node.getParent().setRight(null);
+                }
+                node.setParent(null);
             }
         } // p has a parent but no children
+        if (filter != null) {
+            filter.recordDelete();
+            if (filter.isStale()) {
+                rebuildFilter();
+            }
+        }
+        if (meanings.needsCompaction()) {
+            compactMeanings();
+        }
+        for (DictionaryListener listener : listeners) {
+            listener.wordDeleted(removed);
+        }
         return findNode(root, word) == null;
     }
 
@@ -155,13 +367,316 @@ final class Dictionary {
      * @return if {@code true} there is an element in this {@code Dictionary}
      * object that equals the specified value; otherwise returns {@code false}.
      */
-    boolean exists(String word) {
-        return findNode(root, word) != null;
+    @Override
+    public boolean exists(String word) {
+        if (!DictionaryMetrics.ENABLED) {
+            return find(word, null) != MeaningStore.ABSENT;
+        }
+        long start = System.nanoTime();
+        boolean found = find(word, metrics) != MeaningStore.ABSENT;
+        metrics.recordExists(found, System.nanoTime() - start);
+        return found;
+    }
+
+    /**
+     * Looks up a word held as bytes without creating a {@code String}, unless
+     * a cache or metrics need one.
+     */
+    @Override
+    public boolean exists(byte[] word, int offset, int length) {
+        if (cache != null || hotWords != null || DictionaryMetrics.ENABLED) {
+            return Lexicon.super.exists(word, offset, length);
+        }
+        if (filter != null && !filter.mightContain(BloomFilter.hash(word, offset, length))) {
+            return false;
+        }
+        Node node = root;
+        while (node != null) {
+            int comp = CaseFolding.compare(word, offset, length, node.getWord());
+            if (comp == 0) {
+                return true;
+            }
+            node = comp < 0 ? node.getLeft() : node.getRight();
+        }
+        if (filter != null) {
+            filter.recordFalsePositive();
+        }
+        return false;
+    }
+
+    @Override
+    public String getMeaning(String word) {
+        if (!DictionaryMetrics.ENABLED) {
+            long meaning = find(word, null);
+            return meaning == MeaningStore.ABSENT ? null : meanings.get(meaning);
+        }
+        long start = System.nanoTime();
+        long meaning = find(word, metrics);
+        metrics.recordGetMeaning(meaning != MeaningStore.ABSENT, System.nanoTime() - start);
+        return meaning == MeaningStore.ABSENT ? null : meanings.get(meaning);
+    }
+
+    /**
+     * Puts a {@link LookupCache} in front of the tree, or replaces the one in
+     * place.
+     * <p>
+     * Once a cache is enabled, even lookups change the state of this
+     * {@code Dictionary}, so it must not be shared between threads, not even
+     * read-only.
+     *
+     * @param capacity the largest number of words the cache keeps, hits and
+     * misses alike.
+     */
+    void enableCache(int capacity) {
+        cache = new LookupCache(capacity);
+    }
+
+    void disableCache() {
+        cache = null;
+    }
+
+    /**
+     * @return the cache enabled by {@link #enableCache(int)}, or {@code null}
+     * if there is none.
+     */
+    LookupCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Puts a {@link BloomFilter} of the words in front of the tree, so that
+     * most lookups of absent words end after reading one cache line.
+     * <p>
+     * The filter is kept up to date by {@link #add(String, String)}, and is
+     * rebuilt from the tree once many words were added or deleted.
+     */
+    void enableFilter() {
+        rebuildFilter();
+    }
+
+    void disableFilter() {
+        filter = null;
+    }
+
+    /**
+     * @return the filter enabled by {@link #enableFilter()}, or {@code null}
+     * if there is none.
+     */
+    BloomFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Replaces the filter with one built from the words now in the tree,
+     * with room for half as many again.
+     */
+    private void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(size + size / 2);
+        for (NodeUtil.InOrder it = new NodeUtil.InOrder(root); it.hasNext();) {
+            rebuilt.add(BloomFilter.hash(it.next().getWord()));
+        }
+        filter = rebuilt;
+    }
+
+    /**
+     * Starts counting lookups and serves the most frequent words from a
+     * {@link HotWords} table in front of the tree.
+     * <p>
+     * The table is laid out now, from the frequencies loaded with the words.
+     * After that, every counted lookup also advances a walk of the tree by one
+     * node, and the walk lays out the next table. The new table replaces the
+     * current one when the walk ends, after as many lookups as there are
+     * words. The table follows the traffic, and no lookup pays for more than
+     * one step. A change to the tree starts the walk over. While it is on,
+     * lookups do not go through the cache of {@link #enableCache(int)}, since
+     * every lookup has to reach a node to be counted.
+     *
+     * @param capacity the number of words to keep in the table.
+     *
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    void enableHotWords(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        hotCapacity = capacity;
+        layOutHotWords();
+    }
+
+    void disableHotWords() {
+        hotWords = null;
+        layout = null;
+        hotCapacity = 0;
     }
 
-    String getMeaning(String word) {
+    /**
+     * @return the table laid out by {@link #enableHotWords(int)}, or
+     * {@code null} if it is off.
+     */
+    HotWords getHotWords() {
+        return hotWords;
+    }
+
+    /**
+     * Returns the counters and latencies of this {@code Dictionary}. They are
+     * only recorded when {@link DictionaryMetrics#ENABLED} is set.
+     *
+     * @return the metrics of this {@code Dictionary}.
+     */
+    DictionaryMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Hands the metrics the number of words after a change, and the height
+     * once a sixteenth of the words have changed since it was last measured,
+     * so that measuring costs a constant amount per change on average and
+     * monitoring threads never walk a tree that is being changed.
+     */
+    private void publishShape() {
+        metrics.recordWords(size);
+        if (++changesSinceHeight > size >>> 4) {
+            changesSinceHeight = 0;
+            metrics.recordHeight(height());
+        }
+    }
+
+    /**
+     * Returns the number of nodes on the longest path from the root to a
+     * leaf.
+     */
+    int height() {
+        int height = 0;
+        Node[] level = root == null ? new Node[0] : new Node[]{root};
+        while (level.length > 0) {
+            height++;
+            Node[] next = new Node[level.length * 2];
+            int count = 0;
+            for (Node node : level) {
+                if (node.getLeft() != null) {
+                    next[count++] = node.getLeft();
+                }
+                if (node.getRight() != null) {
+                    next[count++] = node.getRight();
+                }
+            }
+            level = Arrays.copyOf(next, count);
+        }
+        return height;
+    }
+
+    /**
+     * Suggests the words of this {@code Dictionary} closest to the specified
+     * one.
+     * <p>
+     * The first call builds an index of the words, which is then kept up to
+     * date by {@link #add(String, String)} and {@link #delete(String)}.
+     *
+     * @param word a word, usually one that is not in this
+     * {@code Dictionary}.
+     * @param maxDistance the largest number of insertions, deletions,
+     * substitutions and transpositions a suggestion may be away from the
+     * word; at most {@value #MAX_SUGGESTION_DISTANCE}.
+     * @param k the largest number of suggestions to return.
+     *
+     * @return up to {@code k} words, closest first; words at the same
+     * distance are ordered by {@link #getFrequency(String)}, most frequent
+     * first, then alphabetically.
+     *
+     * @throws IllegalArgumentException if the distance is negative or above
+     * {@value #MAX_SUGGESTION_DISTANCE}, or {@code k} is negative.
+     */
+    String[] suggest(String word, int maxDistance, int k) {
+        if (maxDistance < 0 || maxDistance > MAX_SUGGESTION_DISTANCE) {
+            throw new IllegalArgumentException("Edit distance must be between 0 and " + MAX_SUGGESTION_DISTANCE + ": " + maxDistance);
+        }
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of suggestions must not be negative: " + k);
+        }
+        return suggestions().suggest(word, maxDistance, k, this::getFrequency);
+    }
+
+    /**
+     * Returns how often a word is used: the count loaded from the word list,
+     * plus the lookups counted while {@link #enableHotWords(int)} is on.
+     *
+     * @param word the word, in any case.
+     *
+     * @return the frequency of the word, or {@code 0} if it is unknown or the
+     * word is not in this {@code Dictionary}.
+     */
+    long getFrequency(String word) {
         Node node = findNode(root, word);
-        return node == null ? null : node.getInfo().getMeaning();
+        return node == null ? 0 : node.getFrequency();
+    }
+
+    /**
+     * Sets how often a word is used, as when it is read back from a journal.
+     *
+     * @param word the word, in any case.
+     * @param frequency the new frequency.
+     *
+     * @return {@code true} if the word is in this {@code Dictionary};
+     * otherwise {@code false}.
+     */
+    boolean setFrequency(String word, long frequency) {
+        Node node = findNode(root, word);
+        if (node == null) {
+            return false;
+        }
+        node.setFrequency(frequency);
+        return true;
+    }
+
+    /**
+     * @return the number of lookups counted while
+     * {@link #enableHotWords(int)} is on, since this {@code Dictionary} was
+     * created.
+     */
+    long getCountedLookups() {
+        return countedLookups;
+    }
+
+    private synchronized SuggestionIndex suggestions() {
+        if (suggestions == null) {
+            SuggestionIndex index = new SuggestionIndex(MAX_SUGGESTION_DISTANCE);
+            for (NodeUtil.InOrder it = new NodeUtil.InOrder(root); it.hasNext();) {
+                index.add(it.next().getWord());
+            }
+            suggestions = index;
+        }
+        return suggestions;
+    }
+
+    private void added(String word) {
+        layout = null;
+        if (suggestions != null) {
+            suggestions.add(word);
+        }
+        if (filter != null) {
+            filter.add(BloomFilter.hash(word));
+            if (filter.isStale()) {
+                rebuildFilter();
+            }
+        }
+        for (DictionaryListener listener : listeners) {
+            listener.wordAdded(word);
+        }
+    }
+
+    /**
+     * Registers a listener to be told of every word added to or deleted from
+     * this {@code Dictionary}. Listeners are called on the thread that made
+     * the change, in the order they were added.
+     *
+     * @param listener the listener to add.
+     */
+    void addListener(DictionaryListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    void removeListener(DictionaryListener listener) {
+        listeners.remove(listener);
     }
 
     /**
@@ -170,48 +685,367 @@ final class Dictionary {
      *
      * @return the number of words in the dictionary
      */
-    int getCount() {
+    @Override
+    public int getCount() {
         return size;
     }
 
     String printWordList() {
         StringBuilder sb = new StringBuilder();
-        Node[] nodes = toArr(root);
-        String[] words = new String[nodes.length];
-        for (int i = 0; i < nodes.length; i++) {
-            words[i] = nodes[i].getInfo().getWord();
-        }
-        Arrays.sort(words);
-        for (String word : words) {
-            sb.append(word).append("\n");
+        for (NodeUtil.InOrder it = new NodeUtil.InOrder(root); it.hasNext();) {
+            sb.append(it.next().getWord()).append("\n");
         }
         return sb.toString();
     }
 
     void printDictionary() {
-        Node[] nodes = toArr(root);
-        WordInfo[] infos = new WordInfo[nodes.length];
-        for (int i = 0; i < nodes.length; i++) {
-            infos[i] = nodes[i].getInfo();
+        for (NodeUtil.InOrder it = new NodeUtil.InOrder(root); it.hasNext();) {
+            System.out.println(it.next().getWord());
+        }
+    }
+
+    /**
+     * Returns the entries of this {@code Dictionary} in alphabetical order.
+     * <p>
+     * The {@code Dictionary} must not be modified while the iteration is in
+     * progress.
+     *
+     * @return an iterator over the entries, in ascending order of words.
+     */
+    @Override
+    public Iterator<WordInfo> iterator() {
+        NodeUtil.InOrder nodes = new NodeUtil.InOrder(root);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return nodes.hasNext();
+            }
+
+            @Override
+            public WordInfo next() {
+                return info(nodes.next());
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<WordInfo> spliterator() {
+        return Spliterators.spliterator(iterator(), size,
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    /**
+     * @return a sequential stream over the entries, in ascending order of
+     * words.
+     */
+    Stream<WordInfo> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns the smallest word that is greater than or equal to the
+     * specified one.
+     *
+     * @param word the word to start from, in any case.
+     *
+     * @return the word, or {@code null} if there is none.
+     */
+    String ceiling(String word) {
+        Node node = ceilingNode(CaseFolding.prepare(word), true);
+        return node == null ? null : node.getWord();
+    }
+
+    /**
+     * Returns the largest word that is less than or equal to the specified
+     * one.
+     *
+     * @param word the word to start from, in any case.
+     *
+     * @return the word, or {@code null} if there is none.
+     */
+    String floor(String word) {
+        String query = CaseFolding.prepare(word);
+        Node floor = null;
+        Node node = root;
+        while (node != null) {
+            int comp = CaseFolding.compare(query, node.getWord());
+            if (comp == 0) {
+                return node.getWord();
+            }
+            if (comp > 0) {
+                floor = node;
+                node = node.getRight();
+            } else {
+                node = node.getLeft();
+            }
         }
-        Arrays.sort(infos);
-        for (WordInfo info : infos) {
-            System.out.println(info.getWord());
+        return floor == null ? null : floor.getWord();
+    }
+
+    /**
+     * Returns the words that start with the specified prefix.
+     * <p>
+     * Only the part of the tree that holds them is visited: one descent to
+     * the first match, then a walk from each match to the next.
+     *
+     * @param prefix the prefix, in any case; an empty prefix matches every
+     * word.
+     *
+     * @return the matching words, in alphabetical order.
+     */
+    String[] prefix(String prefix) {
+        String normalized = CaseFolding.normalize(prefix);
+        List<String> words = new ArrayList<>();
+        for (Node node = ceilingNode(normalized, true); node != null && node.getWord().startsWith(normalized); node = getSuccessor(node)) {
+            words.add(node.getWord());
         }
+        return words.toArray(String[]::new);
+    }
+
+    /**
+     * Returns the words from {@code from}, inclusive, to {@code to},
+     * exclusive.
+     *
+     * @param from the lower bound, in any case.
+     * @param to the upper bound, in any case.
+     *
+     * @return the words in the range, in alphabetical order; none if
+     * {@code from} is not less than {@code to}.
+     */
+    String[] range(String from, String to) {
+        String upper = CaseFolding.prepare(to);
+        List<String> words = new ArrayList<>();
+        for (Node node = ceilingNode(CaseFolding.prepare(from), true); node != null && CaseFolding.compare(upper, node.getWord()) > 0; node = getSuccessor(node)) {
+            words.add(node.getWord());
+        }
+        return words.toArray(String[]::new);
+    }
+
+    /**
+     * Returns one page of the words in alphabetical order.
+     * <p>
+     * Pass the last word of a page as {@code after} to get the next one. This
+     * stays correct while words are added or deleted between pages, and
+     * costs no more for the last page than for the first.
+     *
+     * @param after the word the page follows, or {@code null} for the first
+     * page.
+     * @param limit the largest number of words to return.
+     *
+     * @return up to {@code limit} words greater than {@code after}; none
+     * after the last page.
+     *
+     * @throws IllegalArgumentException if the limit is negative.
+     */
+    String[] iterate(String after, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative: " + limit);
+        }
+        List<String> words = new ArrayList<>(Math.min(limit, size));
+        Node node = after == null ? ceilingNode("", true) : ceilingNode(CaseFolding.prepare(after), false);
+        for (; node != null && words.size() < limit; node = getSuccessor(node)) {
+            words.add(node.getWord());
+        }
+        return words.toArray(String[]::new);
+    }
+
+    /**
+     * Copies the words of this {@code Dictionary} into a
+     * {@link FrozenDictionary}, which cannot change but answers lookups
+     * faster. This {@code Dictionary} is left as it is.
+     *
+     * @return a read-only copy of the words.
+     */
+    FrozenDictionary freeze() {
+        return new FrozenDictionary(this);
+    }
+
+    /**
+     * Copies all the entries of this {@code Dictionary} into a new array.
+     *
+     * @return the entries, in ascending order of words.
+     */
+    WordInfo[] toArray() {
+        WordInfo[] infos = new WordInfo[size];
+        int i = 0;
+        for (NodeUtil.InOrder it = new NodeUtil.InOrder(root); it.hasNext();) {
+            infos[i++] = info(it.next());
+        }
+        return infos;
+    }
+
+    /**
+     * Looks up the meaning of the specified word, through the filter and the
+     * cache if there are any.
+     *
+     * @return the reference of the meaning in {@link #meanings}, or
+     * {@link MeaningStore#ABSENT} if the word is not in this
+     * {@code Dictionary}.
+     */
+    private long find(String word, DictionaryMetrics probes) {
+        if (filter == null) {
+            return lookUp(word, probes);
+        }
+        String query = CaseFolding.prepare(word);
+        if (!filter.mightContain(BloomFilter.hash(query))) {
+            if (probes != null) {
+                probes.recordProbes(0);
+            }
+            return MeaningStore.ABSENT;
+        }
+        long meaning = lookUp(query, probes);
+        if (meaning == MeaningStore.ABSENT) {
+            filter.recordFalsePositive();
+        }
+        return meaning;
+    }
+
+    private long lookUp(String word, DictionaryMetrics probes) {
+        if (hotWords != null) {
+            return findCounted(word, probes);
+        }
+        if (cache == null) {
+            Node node = probes == null ? findNode(root, word) : findNode(root, word, probes);
+            return node == null ? MeaningStore.ABSENT : node.getMeaning();
+        }
+        String query = CaseFolding.prepare(word);
+        int hash = LookupCache.hash(query);
+        int entry = cache.find(query, hash);
+        if (entry >= 0) {
+            if (probes != null) {
+                probes.recordProbes(0);
+            }
+            return cache.meaningAt(entry);
+        }
+        Node node = probes == null ? findNode(root, query) : findNode(root, query, probes);
+        if (node == null) {
+            cache.put(CaseFolding.normalize(query), hash, MeaningStore.ABSENT);
+            return MeaningStore.ABSENT;
+        }
+        cache.put(node.getWord(), hash, node.getMeaning());
+        return node.getMeaning();
+    }
+
+    /**
+     * Looks a word up in the hot words first, then in the tree, and counts
+     * the lookup against the node found.
+     */
+    private long findCounted(String word, DictionaryMetrics probes) {
+        String query = CaseFolding.prepare(word);
+        Node node = hotWords.find(query, LookupCache.hash(query));
+        if (node != null) {
+            if (probes != null) {
+                probes.recordProbes(1);
+            }
+        } else {
+            node = probes == null ? findNode(root, query) : findNode(root, query, probes);
+            if (node == null) {
+                return MeaningStore.ABSENT;
+            }
+        }
+        node.setFrequency(node.getFrequency() + 1);
+        countedLookups++;
+        if (layout == null) {
+            layout = new HotWords.Layout(root, hotCapacity);
+        }
+        if (layout.advance(1)) {
+            hotWords = layout.build();
+            layout = null;
+        }
+        return node.getMeaning();
+    }
+
+    /**
+     * Replaces the hot words with the {@code hotCapacity} most frequent
+     * words, found in one whole walk of the tree.
+     */
+    private void layOutHotWords() {
+        HotWords.Layout whole = new HotWords.Layout(root, hotCapacity);
+        whole.advance(Integer.MAX_VALUE);
+        hotWords = whole.build();
+        layout = null;
     }
 
+    /**
+     * Looks up the node holding the specified word.
+     * <p>
+     * The query is prepared once and then compared against each key on the
+     * way down, without recursion and without creating new strings.
+     */
     private Node findNode(Node root, String word) {
-        if (root == null || root.getInfo().getWord().equalsIgnoreCase(word)) {
-            return root;
+        String query = CaseFolding.prepare(word);
+        Node node = root;
+        while (node != null) {
+            int comp = CaseFolding.compare(query, node.getWord());
+            if (comp == 0) {
+                return node;
+            }
+            node = comp < 0 ? node.getLeft() : node.getRight();
+        }
+        return null;
+    }
+
+    /**
+     * Looks up the node holding the specified word, like
+     * {@link #findNode(Node, String)}, and records how many nodes were
+     * visited.
+     */
+    private Node findNode(Node root, String word, DictionaryMetrics probes) {
+        String query = CaseFolding.prepare(word);
+        Node node = root;
+        int depth = 0;
+        while (node != null) {
+            depth++;
+            int comp = CaseFolding.compare(query, node.getWord());
+            if (comp == 0) {
+                break;
+            }
+            node = comp < 0 ? node.getLeft() : node.getRight();
+        }
+        probes.recordProbes(depth);
+        return node;
+    }
+
+    private WordInfo info(Node node) {
+        return new WordInfo(node.getWord(), meanings.get(node.getMeaning()), node.getFrequency());
+    }
+
+    /**
+     * Copies the live meanings into a new store, leaving the space of deleted
+     * ones behind.
+     */
+    private void compactMeanings() {
+        MeaningStore compacted = new MeaningStore();
+        for (NodeUtil.InOrder it = new NodeUtil.InOrder(root); it.hasNext();) {
+            Node node = it.next();
+            node.setMeaning(compacted.copy(meanings, node.getMeaning()));
         }
-        if (word.toLowerCase().compareTo(root.getInfo().getWord().toLowerCase()) < 0) {
-            return findNode(root.getLeft(), word);
+        meanings = compacted;
+        if (cache != null) {
+            cache.clear();
         }
-        return findNode(root.getRight(), word);
     }
 
-    private Node[] toArr(Node root) {
-        return new NodeUtil().toArr(root);
+    /**
+     * Finds the node with the smallest word above a prepared query, or equal
+     * to it if {@code inclusive}.
+     */
+    private Node ceilingNode(String query, boolean inclusive) {
+        Node ceiling = null;
+        Node node = root;
+        while (node != null) {
+            int comp = CaseFolding.compare(query, node.getWord());
+            if (comp == 0 && inclusive) {
+                return node;
+            }
+            if (comp < 0) {
+                ceiling = node;
+                node = node.getLeft();
+            } else {
+                node = node.getRight();
+            }
+        }
+        return ceiling;
     }
 
     private Node getSuccessor(Node node) {
@@ -238,29 +1072,239 @@ final class Dictionary {
         } // seems entry has no right child
     }
 
+    /**
+     * Finds the depth at which a tree built by
+     * {@link #buildFromSorted(WordInfo[], int, int, int, int, Node)} has its
+     * only red nodes: the last level, when it is not full.
+     */
+    private static int computeRedLevel(int size) {
+        int level = 0;
+        for (int m = size - 1; m >= 0; m = m / 2 - 1) {
+            level++;
+        }
+        return level;
+    }
+
+    private Node buildFromSorted(WordInfo[] infos, int lo, int hi, int level, int redLevel, Node parent) {
+        if (hi < lo) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        Node node = new Node(infos[mid].getWord(), meanings.put(infos[mid].getMeaning()), parent);
+        node.setFrequency(infos[mid].getFrequency());
+        node.setLeft(buildFromSorted(infos, lo, mid - 1, level + 1, redLevel, node));
+        node.setRight(buildFromSorted(infos, mid + 1, hi, level + 1, redLevel, node));
+        node.setRed(level == redLevel);
+        return node;
+    }
+
+    // Red-black balancing, after CLR. Null leaves count as black.
+    private static boolean isRed(Node node) {
+        return node != null && node.isRed();
+    }
+
+    private static void setRed(Node node, boolean red) {
+        if (node != null) {
+            node.setRed(red);
+        }
+    }
+
+    private static Node parentOf(Node node) {
+        return node == null ? null : node.getParent();
+    }
+
+    private static Node leftOf(Node node) {
+        return node == null ? null : node.getLeft();
+    }
+
+    private static Node rightOf(Node node) {
+        return node == null ? null : node.getRight();
+    }
+
+    private void rotateLeft(Node node) {
+        if (node == null) {
+            return;
+        }
+        Node right = node.getRight();
+        node.setRight(right.getLeft());
+        if (right.getLeft() != null) {
+            right.getLeft().setParent(node);
+        }
+        right.setParent(node.getParent());
+        if (node.getParent() == null) {
+            root = right;
+        } else if (node.getParent().getLeft() == node) {
+            node.getParent().setLeft(right);
+        } else {
+            node.getParent().setRight(right);
+        }
+        right.setLeft(node);
+        node.setParent(right);
+    }
+
+    private void rotateRight(Node node) {
+        if (node == null) {
+            return;
+        }
+        Node left = node.getLeft();
+        node.setLeft(left.getRight());
+        if (left.getRight() != null) {
+            left.getRight().setParent(node);
+        }
+        left.setParent(node.getParent());
+        if (node.getParent() == null) {
+            root = left;
+        } else if (node.getParent().getRight() == node) {
+            node.getParent().setRight(left);
+        } else {
+            node.getParent().setLeft(left);
+        }
+        left.setRight(node);
+        node.setParent(left);
+    }
+
+    private void fixAfterInsertion(Node x) {
+        x.setRed(true);
+        while (x != null && x != root && x.getParent().isRed()) {
+            if (parentOf(x) == leftOf(parentOf(parentOf(x)))) {
+                Node y = rightOf(parentOf(parentOf(x)));
+                if (isRed(y)) {
+                    setRed(parentOf(x), false);
+                    setRed(y, false);
+                    setRed(parentOf(parentOf(x)), true);
+                    x = parentOf(parentOf(x));
+                } else {
+                    if (x == rightOf(parentOf(x))) {
+                        x = parentOf(x);
+                        rotateLeft(x);
+                    }
+                    setRed(parentOf(x), false);
+                    setRed(parentOf(parentOf(x)), true);
+                    rotateRight(parentOf(parentOf(x)));
+                }
+            } else {
+                Node y = leftOf(parentOf(parentOf(x)));
+                if (isRed(y)) {
+                    setRed(parentOf(x), false);
+                    setRed(y, false);
+                    setRed(parentOf(parentOf(x)), true);
+                    x = parentOf(parentOf(x));
+                } else {
+                    if (x == leftOf(parentOf(x))) {
+                        x = parentOf(x);
+                        rotateRight(x);
+                    }
+                    setRed(parentOf(x), false);
+                    setRed(parentOf(parentOf(x)), true);
+                    rotateLeft(parentOf(parentOf(x)));
+                }
+            }
+        }
+        root.setRed(false);
+    }
+
+    private void fixAfterDeletion(Node x) {
+        while (x != root && !isRed(x)) {
+            if (x == leftOf(parentOf(x))) {
+                Node sib = rightOf(parentOf(x));
+                if (isRed(sib)) {
+                    setRed(sib, false);
+                    setRed(parentOf(x), true);
+                    rotateLeft(parentOf(x));
+                    sib = rightOf(parentOf(x));
+                }
+                if (!isRed(leftOf(sib)) && !isRed(rightOf(sib))) {
+                    setRed(sib, true);
+                    x = parentOf(x);
+                } else {
+                    if (!isRed(rightOf(sib))) {
+                        setRed(leftOf(sib), false);
+                        setRed(sib, true);
+                        rotateRight(sib);
+                        sib = rightOf(parentOf(x));
+                    }
+                    setRed(sib, isRed(parentOf(x)));
+                    setRed(parentOf(x), false);
+                    setRed(rightOf(sib), false);
+                    rotateLeft(parentOf(x));
+                    x = root;
+                }
+            } else {
+                Node sib = leftOf(parentOf(x));
+                if (isRed(sib)) {
+                    setRed(sib, false);
+                    setRed(parentOf(x), true);
+                    rotateRight(parentOf(x));
+                    sib = leftOf(parentOf(x));
+                }
+                if (!isRed(rightOf(sib)) && !isRed(leftOf(sib))) {
+                    setRed(sib, true);
+                    x = parentOf(x);
+                } else {
+                    if (!isRed(leftOf(sib))) {
+                        setRed(rightOf(sib), false);
+                        setRed(sib, true);
+                        rotateLeft(sib);
+                        sib = leftOf(parentOf(x));
+                    }
+                    setRed(sib, isRed(parentOf(x)));
+                    setRed(parentOf(x), false);
+                    setRed(leftOf(sib), false);
+                    rotateRight(parentOf(x));
+                    x = root;
+                }
+            }
+        }
+        setRed(x, false);
+    }
+
     static class Node {
 
-        private WordInfo info;
+        private String word;
+        private long meaning;
+        private long frequency;
         private Node parent;
         private Node left;
         private Node right;
+        private boolean red;
 
-        Node(WordInfo element, Node parent) {
-            this.info = element;
+        Node(String word, long meaning, Node parent) {
+            this.word = word;
+            this.meaning = meaning;
             this.parent = parent;
         }
 
         @Override
         public String toString() {
-            return "Node{" + "info=" + info + ", parent=" + parent + ", left=" + left + ", right=" + right + '}';
+            return "Node{" + "word=" + word + ", meaning=" + meaning + ", parent=" + parent + ", left=" + left + ", right=" + right + '}';
         }
 
-        WordInfo getInfo() {
-            return info;
+        String getWord() {
+            return word;
         }
 
-        void setInfo(WordInfo info) {
-            this.info = info;
+        void setWord(String word) {
+            this.word = word;
+        }
+
+        /**
+         * @return the reference of the meaning in the {@link MeaningStore} of
+         * the dictionary
+         */
+        long getMeaning() {
+            return meaning;
+        }
+
+        void setMeaning(long meaning) {
+            this.meaning = meaning;
+        }
+
+        long getFrequency() {
+            return frequency;
+        }
+
+        void setFrequency(long frequency) {
+            this.frequency = frequency;
         }
 
         Node getParent() {
@@ -286,5 +1330,13 @@ final class Dictionary {
         void setRight(Node right) {
             this.right = right;
         }
+
+        boolean isRed() {
+            return red;
+        }
+
+        void setRed(boolean red) {
+            this.red = red;
+        }
     }
 }
@@ -0,0 +1,222 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Loads a word list into a {@link Dictionary} using all available cores.
+ * <p>
+ * The file is cut into chunks at line boundaries and never held in memory as
+ * a whole. Each chunk is read, parsed, sorted and deduplicated by its own
+ * fork-join task, and the sorted runs are merged pairwise on the way back up,
+ * earlier chunks winning ties as {@link Dictionary#merge(WordInfo, WordInfo)}
+ * requires. The final run is turned into a balanced tree in one pass.
+ */
+final class DictionaryLoader {
+
+    static final int CHUNK_SIZE = 1 << 22;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    DictionaryLoader() {
+        this(ForkJoinPool.commonPool(), CHUNK_SIZE);
+    }
+
+    DictionaryLoader(ForkJoinPool pool, int chunkSize) {
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads a word list in the format accepted by
+     * {@link Dictionary#Dictionary(String[])}.
+     *
+     * @param path the word list.
+     *
+     * @return a new {@code Dictionary} holding the words of the file.
+     *
+     * @throws IOException if the file cannot be read.
+     */
+    Dictionary load(Path path) throws IOException {
+        long start = System.nanoTime();
+        try ( FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            try {
+                Dictionary dictionary = Dictionary.fromSorted(pool.invoke(new ChunkTask(channel, bounds, 0, bounds.length - 1)));
+                dictionary.getMetrics().recordLoad(System.nanoTime() - start);
+                return dictionary;
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+
+    /**
+     * Splits the file into chunks of roughly {@code chunkSize} bytes, each
+     * ending just after a line feed or at the end of the file.
+     */
+    private long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[8];
+        int count = 1;
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long position = 0;
+        while (position < size) {
+            long next = Math.min(size, position + chunkSize);
+            while (next < size) {
+                buffer.clear();
+                int read = channel.read(buffer, next);
+                int newline = -1;
+                for (int i = 0; i < read && newline < 0; i++) {
+                    if (buffer.get(i) == '\n') {
+                        newline = i;
+                    }
+                }
+                if (newline >= 0) {
+                    next += newline + 1;
+                    break;
+                }
+                next += Math.max(read, 0);
+            }
+            next = Math.min(next, size);
+            if (count == bounds.length) {
+                bounds = Arrays.copyOf(bounds, count * 2);
+            }
+            bounds[count++] = next;
+            position = next;
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static WordInfo[] parse(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                break;
+            }
+        }
+        byte[] bytes = buffer.array();
+        int length = buffer.position();
+        WordInfo[] infos = new WordInfo[64];
+        int count = 0;
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            WordInfo info = Dictionary.parseLine(new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8));
+            if (info != null) {
+                if (count == infos.length) {
+                    infos = Arrays.copyOf(infos, count * 2);
+                }
+                infos[count++] = info;
+            }
+            lineStart = next;
+        }
+        Arrays.sort(infos, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique > 0 && infos[unique - 1].compareTo(infos[i]) == 0) {
+                infos[unique - 1] = Dictionary.merge(infos[unique - 1], infos[i]);
+            } else {
+                infos[unique++] = infos[i];
+            }
+        }
+        return Arrays.copyOf(infos, unique);
+    }
+
+    private static WordInfo[] merge(WordInfo[] earlier, WordInfo[] later) {
+        WordInfo[] merged = new WordInfo[earlier.length + later.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < earlier.length && j < later.length) {
+            int comp = earlier[i].compareTo(later[j]);
+            if (comp < 0) {
+                merged[count++] = earlier[i++];
+            } else if (comp > 0) {
+                merged[count++] = later[j++];
+            } else {
+                merged[count++] = Dictionary.merge(earlier[i++], later[j++]);
+            }
+        }
+        while (i < earlier.length) {
+            merged[count++] = earlier[i++];
+        }
+        while (j < later.length) {
+            merged[count++] = later[j++];
+        }
+        return count == merged.length ? merged : Arrays.copyOf(merged, count);
+    }
+
+    private static final class ChunkTask extends RecursiveTask<WordInfo[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+
+        ChunkTask(FileChannel channel, long[] bounds, int from, int to) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected WordInfo[] compute() {
+            if (to - from <= 1) {
+                if (to == from) {
+                    return new WordInfo[0];
+                }
+                try {
+                    return parse(channel, bounds[from], bounds[to]);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            int mid = (from + to) >>> 1;
+            ChunkTask later = new ChunkTask(channel, bounds, mid, to);
+            later.fork();
+            WordInfo[] earlier = new ChunkTask(channel, bounds, from, mid).compute();
+            return merge(earlier, later.join());
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Counters and latency histograms for one {@link Dictionary} and the spell
+ * checks run against it.
+ * <p>
+ * Recording is switched on for the whole JVM with
+ * {@code -Dspellchecker.metrics=true}. The switch is a constant, so when it
+ * is off the JIT compiles the recording branches away and the hot paths do
+ * not even read the clock. The values can be pulled through the getters or
+ * over JMX once {@link #register(String)} has been called.
+ */
+final class DictionaryMetrics implements DictionaryMetricsMBean {
+
+    static final boolean ENABLED = Boolean.getBoolean("spellchecker.metrics");
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder probes = new LongAdder();
+    private final LatencyHistogram exists = new LatencyHistogram();
+    private final LatencyHistogram meaning = new LatencyHistogram();
+    private final LatencyHistogram add = new LatencyHistogram();
+    private final LatencyHistogram delete = new LatencyHistogram();
+    private final LongAdder spellCheckTokens = new LongAdder();
+    private final LongAdder spellCheckNanos = new LongAdder();
+    private volatile long loadNanos;
+    private volatile int height;
+    private volatile int words;
+
+    /**
+     * Publishes these metrics on the platform MBean server.
+     *
+     * @param name the value of the {@code name} key of the object name.
+     *
+     * @throws JMException if the name is invalid or already taken.
+     */
+    void register(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("com.github.idelstak.spellchecker:type=Dictionary,name=" + ObjectName.quote(name));
+        server.registerMBean(new StandardMBean(this, DictionaryMetricsMBean.class), objectName);
+    }
+
+    void recordExists(boolean hit, long nanos) {
+        recordLookup(hit);
+        exists.record(nanos);
+    }
+
+    void recordGetMeaning(boolean hit, long nanos) {
+        recordLookup(hit);
+        meaning.record(nanos);
+    }
+
+    /**
+     * Records how many nodes a lookup visited, the one it found included.
+     */
+    void recordProbes(int depth) {
+        probes.add(depth);
+    }
+
+    void recordAdd(long nanos) {
+        add.record(nanos);
+    }
+
+    void recordDelete(long nanos) {
+        delete.record(nanos);
+    }
+
+    void recordLoad(long nanos) {
+        loadNanos = nanos;
+    }
+
+    /**
+     * Records the number of words, as counted by the thread that changes the
+     * dictionary.
+     */
+    void recordWords(int words) {
+        this.words = words;
+    }
+
+    /**
+     * Records the height of the tree, as measured by the thread that changes
+     * the dictionary.
+     */
+    void recordHeight(int height) {
+        this.height = height;
+    }
+
+    void recordSpellCheck(long tokens, long nanos) {
+        spellCheckTokens.add(tokens);
+        spellCheckNanos.add(nanos);
+    }
+
+    private void recordLookup(boolean hit) {
+        lookups.increment();
+        if (hit) {
+            hits.increment();
+        }
+    }
+
+    @Override
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return lookups.sum() - hits.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long n = lookups.sum();
+        return n == 0 ? 0 : (double) hits.sum() / n;
+    }
+
+    @Override
+    public double getAverageProbeDepth() {
+        long n = lookups.sum();
+        return n == 0 ? 0 : (double) probes.sum() / n;
+    }
+
+    /**
+     * Returns the height last measured by the thread that changes the
+     * dictionary, which is at most a sixteenth of the words out of date.
+     * Reading it never touches the tree.
+     */
+    @Override
+    public int getTreeHeight() {
+        return height;
+    }
+
+    @Override
+    public int getWordCount() {
+        return words;
+    }
+
+    @Override
+    public long getLoadMillis() {
+        return loadNanos / 1_000_000;
+    }
+
+    @Override
+    public long getExistsP50() {
+        return exists.getValueAtQuantile(0.5);
+    }
+
+    @Override
+    public long getExistsP99() {
+        return exists.getValueAtQuantile(0.99);
+    }
+
+    @Override
+    public long getGetMeaningP50() {
+        return meaning.getValueAtQuantile(0.5);
+    }
+
+    @Override
+    public long getGetMeaningP99() {
+        return meaning.getValueAtQuantile(0.99);
+    }
+
+    @Override
+    public long getAddP50() {
+        return add.getValueAtQuantile(0.5);
+    }
+
+    @Override
+    public long getAddP99() {
+        return add.getValueAtQuantile(0.99);
+    }
+
+    @Override
+    public long getDeleteP50() {
+        return delete.getValueAtQuantile(0.5);
+    }
+
+    @Override
+    public long getDeleteP99() {
+        return delete.getValueAtQuantile(0.99);
+    }
+
+    @Override
+    public long getSpellCheckTokens() {
+        return spellCheckTokens.sum();
+    }
+
+    @Override
+    public double getSpellCheckTokensPerSecond() {
+        long nanos = spellCheckNanos.sum();
+        return nanos == 0 ? 0 : spellCheckTokens.sum() * 1e9 / nanos;
+    }
+
+    LatencyHistogram getExistsLatency() {
+        return exists;
+    }
+
+    LatencyHistogram getMeaningLatency() {
+        return meaning;
+    }
+
+    LatencyHistogram getAddLatency() {
+        return add;
+    }
+
+    LatencyHistogram getDeleteLatency() {
+        return delete;
+    }
+
+    /**
+     * Clears every counter and histogram. The load time is kept.
+     */
+    @Override
+    public void reset() {
+        lookups.reset();
+        hits.reset();
+        probes.reset();
+        exists.reset();
+        meaning.reset();
+        add.reset();
+        delete.reset();
+        spellCheckTokens.reset();
+        spellCheckNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "DictionaryMetrics{lookups=%d, hitRatio=%.3f, averageProbeDepth=%.2f, existsP99=%dns, tokensPerSecond=%.0f}"
+                .formatted(getLookups(), getHitRatio(), getAverageProbeDepth(), getExistsP99(), getSpellCheckTokensPerSecond());
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+/**
+ * The JMX view of {@link DictionaryMetrics}. Latencies are in nanoseconds.
+ */
+public interface DictionaryMetricsMBean {
+
+    long getLookups();
+
+    long getHits();
+
+    long getMisses();
+
+    double getHitRatio();
+
+    double getAverageProbeDepth();
+
+    int getTreeHeight();
+
+    int getWordCount();
+
+    long getLoadMillis();
+
+    long getExistsP50();
+
+    long getExistsP99();
+
+    long getGetMeaningP50();
+
+    long getGetMeaningP99();
+
+    long getAddP50();
+
+    long getAddP99();
+
+    long getDeleteP50();
+
+    long getDeleteP99();
+
+    long getSpellCheckTokens();
+
+    double getSpellCheckTokensPerSecond();
+
+    void reset();
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes the compiled, on-disk form of a {@link Lexicon}.
+ * <p>
+ * A snapshot is laid out as follows, with every number big-endian:
+ * <pre>
+ * header   magic, version, word count, reserved   4 ints
+ *          length of the data that follows        long
+ *          CRC32C of that data                    long
+ * data     key offsets                            count + 1 ints
+ *          meaning offsets                        count + 1 ints
+ *          frequencies                            count longs
+ *          keys, UTF-8, in alphabetical order
+ *          meanings, UTF-8, in the same order
+ * </pre>
+ * Offsets are relative to the start of their section, so the key of word
+ * {@code i} spans {@code [keyOffset[i], keyOffset[i + 1])}. A word without a
+ * definition has an empty meaning. {@link MappedDictionary} reads the format
+ * back, as well as that of version 1, which has no frequencies.
+ */
+final class DictionarySnapshot {
+
+    static final int MAGIC = 0x5350434B;
+    static final int VERSION = 2;
+    static final int HEADER_LENGTH = 32;
+
+    private DictionarySnapshot() {
+    }
+
+    /**
+     * Writes the specified {@code Lexicon} to a snapshot file.
+     * <p>
+     * The file is written next to its final location and moved into place
+     * once complete, so readers never see a partial snapshot.
+     *
+     * @param lexicon the words to write.
+     * @param path the snapshot file to create or replace.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    static void write(Lexicon lexicon, Path path) throws IOException {
+        int count = lexicon.getCount();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try ( FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_LENGTH);
+            CRC32C crc = new CRC32C();
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc);
+            DataOutputStream out = new DataOutputStream(checked);
+            writeOffsets(out, lexicon, count, false);
+            writeOffsets(out, lexicon, count, true);
+            for (WordInfo info : lexicon) {
+                out.writeLong(info.getFrequency());
+            }
+            for (WordInfo info : lexicon) {
+                out.write(info.getWord().getBytes(StandardCharsets.UTF_8));
+            }
+            for (WordInfo info : lexicon) {
+                out.write(meaningBytes(info));
+            }
+            out.flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            header.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(0);
+            header.putLong(out.size()).putLong(crc.getValue());
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeOffsets(DataOutputStream out, Lexicon lexicon, int count, boolean meanings) throws IOException {
+        int written = 0;
+        int offset = 0;
+        out.writeInt(offset);
+        for (WordInfo info : lexicon) {
+            byte[] bytes = meanings ? meaningBytes(info) : info.getWord().getBytes(StandardCharsets.UTF_8);
+            if (offset + bytes.length < offset) {
+                throw new IOException("Snapshot sections are limited to 2 GB");
+            }
+            offset += bytes.length;
+            out.writeInt(offset);
+            written++;
+        }
+        if (written != count) {
+            throw new IOException("Expected %d words but found %d".formatted(count, written));
+        }
+    }
+
+    private static byte[] meaningBytes(WordInfo info) {
+        String meaning = info.getMeaning();
+        return Dictionary.UNDEFINED_MEANING.equals(meaning) ? new byte[0] : meaning.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,557 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Makes the changes to a {@link Dictionary} durable.
+ * <p>
+ * Every {@link #add(String, String)} and {@link #delete(String)} is appended
+ * to a journal before it returns, so the word list itself is never
+ * rewritten. The store keeps its files in one directory:
+ * <pre>
+ * snapshot-G.dict   the whole dictionary, in the format of DictionarySnapshot
+ * journal-G.log     the changes made after snapshot G was taken
+ * </pre>
+ * Opening a store loads the newest snapshot, or the word list if there is
+ * none yet, and replays every journal of the same or a later generation over
+ * it.
+ * <p>
+ * Each journal record is framed as its length and its CRC32C, followed by
+ * the operation, the word and the meaning, and for an addition the frequency
+ * of the word once added; records written without a frequency still replay.
+ * A record cut short by a crash fails its checksum and ends the replay, and
+ * the journal is truncated before it.
+ * <p>
+ * Records are written by a single committer thread. Changes made while it
+ * is busy pile up and go out as one write and one {@code fsync}, so the cost
+ * of an {@code fsync} is shared by every change in the batch. Once a journal
+ * outgrows the compaction threshold, the committer starts the next
+ * generation. Another thread then writes a snapshot of the dictionary as it
+ * stood at that point and deletes the files it replaces.
+ * <p>
+ * Changes must be made through the store, not directly on the dictionary.
+ * The store applies them one at a time, whichever thread they come from.
+ * Lookups go straight to the {@link Dictionary} and never wait for the disk,
+ * but as with any {@code Dictionary} they must not overlap a change.
+ */
+final class DictionaryStore implements AutoCloseable {
+
+    static final long COMPACTION_THRESHOLD = 16 << 20;
+    private static final byte ADD = 1;
+    private static final byte DELETE = 2;
+    private static final Pattern FILE_NAME = Pattern.compile("(snapshot|journal)-(\\d+)\\.(dict|log)");
+    private final Path directory;
+    private final Dictionary dictionary;
+    private final long compactionThreshold;
+    private final Thread committer;
+    private FileChannel journal;
+    private long generation;
+    private long journalSize;
+    // Guarded by this: records waiting for the committer, and the sequence
+    // numbers of the last record queued and of the last one made durable.
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long queued;
+    private long durable;
+    private boolean requestedCompaction;
+    private boolean compacting;
+    private boolean closed;
+    private IOException failure;
+
+    private DictionaryStore(Path directory, Dictionary dictionary, FileChannel journal, long generation, long compactionThreshold) throws IOException {
+        this.directory = directory;
+        this.dictionary = dictionary;
+        this.journal = journal;
+        this.generation = generation;
+        this.compactionThreshold = compactionThreshold;
+        journalSize = journal.size();
+        committer = new Thread(this::commitLoop, "dictionary-journal");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Opens the store in the specified directory with the default
+     * compaction threshold.
+     *
+     * @see #open(Path, Path, long)
+     */
+    static DictionaryStore open(Path directory, Path wordList) throws IOException {
+        return open(directory, wordList, COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Opens the store in the specified directory, creating it if needed, and
+     * recovers the dictionary.
+     *
+     * @param directory where the snapshots and journals are kept.
+     * @param wordList the word list the dictionary starts from, read only
+     * while there is no snapshot yet.
+     * @param compactionThreshold the journal size, in bytes, above which the
+     * journal is folded into a new snapshot.
+     *
+     * @return the opened store.
+     *
+     * @throws IOException if the files cannot be read, or a journal other
+     * than the newest is corrupt.
+     */
+    static DictionaryStore open(Path directory, Path wordList, long compactionThreshold) throws IOException {
+        Files.createDirectories(directory);
+        long snapshot = -1;
+        List<Long> journals = new ArrayList<>();
+        try ( Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    long generation = Long.parseLong(matcher.group(2));
+                    if (matcher.group(1).equals("snapshot")) {
+                        snapshot = Math.max(snapshot, generation);
+                    } else {
+                        journals.add(generation);
+                    }
+                }
+            }
+        }
+        Dictionary dictionary;
+        if (snapshot < 0) {
+            dictionary = new DictionaryLoader().load(wordList);
+            snapshot = 0;
+        } else {
+            MappedDictionary mapped = MappedDictionary.open(snapshotFile(directory, snapshot));
+            mapped.verify();
+            List<WordInfo> infos = new ArrayList<>(mapped.getCount());
+            mapped.forEach(infos::add);
+            dictionary = Dictionary.fromSorted(infos.toArray(WordInfo[]::new));
+        }
+        long first = snapshot;
+        journals.removeIf(generation -> generation < first);
+        journals.sort(null);
+        long generation = journals.isEmpty() ? snapshot : journals.get(journals.size() - 1);
+        for (long replayed : journals) {
+            replay(journalFile(directory, replayed), dictionary, replayed == generation);
+        }
+        FileChannel journal = FileChannel.open(journalFile(directory, generation), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new DictionaryStore(directory, dictionary, journal, generation, compactionThreshold);
+    }
+
+    /**
+     * @return the dictionary kept by this store, for lookups
+     */
+    Dictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Adds a word as {@link Dictionary#add(String, String)} does and waits
+     * until the change is on disk.
+     *
+     * @return {@code true} if the dictionary changed.
+     *
+     * @throws IOException if the journal cannot be written.
+     */
+    boolean add(String word, String meaning) throws IOException {
+        long sequence;
+        synchronized (this) {
+            checkOpen();
+            if (!dictionary.add(word, meaning)) {
+                return false;
+            }
+            String normalized = CaseFolding.normalize(word);
+            sequence = enqueue(ADD, normalized, meaning, dictionary.getFrequency(normalized));
+        }
+        awaitDurable(sequence);
+        return true;
+    }
+
+    /**
+     * Deletes a word as {@link Dictionary#delete(String)} does and waits
+     * until the change is on disk.
+     *
+     * @return {@code true} if the word was in the dictionary and is now
+     * gone.
+     *
+     * @throws IOException if the journal cannot be written.
+     */
+    boolean delete(String word) throws IOException {
+        long sequence;
+        synchronized (this) {
+            checkOpen();
+            if (!dictionary.exists(word) || !dictionary.delete(word)) {
+                return false;
+            }
+            sequence = enqueue(DELETE, CaseFolding.normalize(word), "", -1);
+        }
+        awaitDurable(sequence);
+        return true;
+    }
+
+    /**
+     * Starts the next journal and writes a snapshot in the background,
+     * regardless of the size of the journal.
+     */
+    synchronized void compact() {
+        requestedCompaction = true;
+        notifyAll();
+    }
+
+    /**
+     * @return the generation of the journal being written
+     */
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Writes out every queued change, waits for a running compaction and
+     * closes the journal.
+     * <p>
+     * If lookups were counted for the hot words of the dictionary, a last
+     * snapshot is then written, so that the frequencies they raised survive a
+     * restart; lookups are not journaled one by one.
+     *
+     * @throws IOException if the last changes cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            committer.join();
+            synchronized (this) {
+                while (compacting) {
+                    wait();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the dictionary store");
+        } finally {
+            journal.close();
+        }
+        synchronized (this) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        if (dictionary.getCountedLookups() > 0) {
+            long next;
+            synchronized (this) {
+                next = ++generation;
+            }
+            compact(dictionary.toArray(), next);
+        }
+    }
+
+    /**
+     * @param frequency the frequency to record, or {@code -1} for none.
+     */
+    private long enqueue(byte operation, String word, String meaning, long frequency) {
+        try {
+            ByteArrayOutputStream record = new ByteArrayOutputStream(word.length() + meaning.length() + 8);
+            DataOutputStream out = new DataOutputStream(record);
+            out.writeByte(operation);
+            writeString(out, word);
+            writeString(out, meaning);
+            if (frequency >= 0) {
+                out.writeLong(frequency);
+            }
+            byte[] payload = record.toByteArray();
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            DataOutputStream frame = new DataOutputStream(pending);
+            frame.writeInt(payload.length);
+            frame.writeInt((int) crc.getValue());
+            frame.write(payload);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        queued++;
+        notifyAll();
+        return queued;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private synchronized void awaitDurable(long sequence) throws IOException {
+        while (durable < sequence && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the journal");
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("The dictionary store is closed");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void commitLoop() {
+        while (true) {
+            byte[] batch;
+            long sequence;
+            WordInfo[] snapshot = null;
+            synchronized (this) {
+                // A requested compaction waits for the running one to end,
+                // which wakes this thread again; once closed, it is dropped.
+                while (durable == queued && !closed && (!requestedCompaction || compacting)) {
+                    try {
+                        wait();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+                if (durable == queued && closed) {
+                    requestedCompaction = false;
+                    return;
+                }
+                batch = pending.toByteArray();
+                pending = new ByteArrayOutputStream();
+                sequence = queued;
+                boolean due = requestedCompaction || journalSize + batch.length > compactionThreshold;
+                if (due && !compacting && !closed) {
+                    // The dictionary is copied while no change can be made,
+                    // so the snapshot holds exactly the records written so
+                    // far.
+                    snapshot = dictionary.toArray();
+                    compacting = true;
+                    requestedCompaction = false;
+                }
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch);
+                while (buffer.hasRemaining()) {
+                    journal.write(buffer);
+                }
+                journal.force(false);
+                journalSize += batch.length;
+                if (snapshot != null) {
+                    rotate(snapshot);
+                }
+                synchronized (this) {
+                    durable = sequence;
+                    notifyAll();
+                }
+            } catch (IOException ex) {
+                synchronized (this) {
+                    failure = ex;
+                    compacting = false;
+                    notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves on to a new journal, then writes the snapshot for it on another
+     * thread.
+     */
+    private void rotate(WordInfo[] snapshot) throws IOException {
+        long next = generation + 1;
+        FileChannel nextJournal = FileChannel.open(journalFile(directory, next), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        journal.close();
+        synchronized (this) {
+            journal = nextJournal;
+            generation = next;
+        }
+        journalSize = 0;
+        Thread compactor = new Thread(() -> compact(snapshot, next), "dictionary-compaction");
+        compactor.setDaemon(true);
+        compactor.start();
+    }
+
+    private void compact(WordInfo[] snapshot, long generation) {
+        try {
+            DictionarySnapshot.write(new SortedWords(snapshot), snapshotFile(directory, generation));
+            try ( Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                    if (matcher.matches() && Long.parseLong(matcher.group(2)) < generation) {
+                        try {
+                            Files.deleteIfExists(file);
+                        } catch (IOException ex) {
+                            // A file still mapped on some platforms; it is
+                            // ignored on recovery and retried next time.
+                        }
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            // The journals are still complete, so nothing is lost; the next
+            // compaction tries again.
+            System.err.println("Dictionary compaction failed: " + ex.getMessage());
+        } finally {
+            synchronized (this) {
+                compacting = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Applies the records of a journal to the dictionary.
+     *
+     * @param last whether this is the newest journal, the only one that may
+     * end in a torn record; it is truncated after the last whole record.
+     */
+    private static void replay(Path path, Dictionary dictionary, boolean last) throws IOException {
+        try ( FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE - 8));
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Reads the whole journal; it stays below the compaction
+                // threshold.
+            }
+            buffer.flip();
+            long valid = 0;
+            CRC32C crc = new CRC32C();
+            while (buffer.remaining() >= 8) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length < 9 || length > buffer.remaining()) {
+                    break;
+                }
+                crc.reset();
+                crc.update(buffer.slice(buffer.position(), length));
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                apply(buffer.slice(buffer.position(), length), dictionary);
+                buffer.position(buffer.position() + length);
+                valid = buffer.position();
+            }
+            if (valid < channel.size()) {
+                if (!last) {
+                    throw new IOException("Journal %s is corrupt at byte %d".formatted(path.getFileName(), valid));
+                }
+                channel.truncate(valid);
+                channel.force(false);
+            }
+        }
+    }
+
+    private static void apply(ByteBuffer record, Dictionary dictionary) {
+        byte operation = record.get();
+        String word = readString(record);
+        String meaning = readString(record);
+        if (operation == ADD) {
+            dictionary.add(word, meaning);
+            if (record.remaining() >= Long.BYTES) {
+                dictionary.setFrequency(word, record.getLong());
+            }
+        } else if (operation == DELETE && dictionary.exists(word)) {
+            dictionary.delete(word);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static Path snapshotFile(Path directory, long generation) {
+        return directory.resolve("snapshot-" + generation + ".dict");
+    }
+
+    private static Path journalFile(Path directory, long generation) {
+        return directory.resolve("journal-" + generation + ".log");
+    }
+
+    /**
+     * The words of a compaction, written out as they are: building a
+     * {@link Dictionary} from them would hold every word twice while the
+     * snapshot is written.
+     */
+    private static final class SortedWords implements Lexicon {
+
+        private final WordInfo[] words;
+
+        SortedWords(WordInfo[] words) {
+            this.words = words;
+        }
+
+        @Override
+        public boolean exists(String word) {
+            return indexOf(word) >= 0;
+        }
+
+        @Override
+        public String getMeaning(String word) {
+            int index = indexOf(word);
+            return index < 0 ? null : words[index].getMeaning();
+        }
+
+        @Override
+        public int getCount() {
+            return words.length;
+        }
+
+        @Override
+        public Iterator<WordInfo> iterator() {
+            return Arrays.asList(words).iterator();
+        }
+
+        private int indexOf(String word) {
+            return Arrays.binarySearch(words, new WordInfo(CaseFolding.normalize(word), null));
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only {@link Lexicon} laid out for fast lookups.
+ * <p>
+ * A descent of the {@link Dictionary} tree follows a pointer per level, and
+ * each node it reaches is a separate object somewhere on the heap, so every
+ * level tends to cost a cache miss. Here the words are kept in Eytzinger
+ * order instead: the implicit binary tree in which the children of slot
+ * {@code i} are the slots {@code 2i} and {@code 2i + 1}. The first levels
+ * of every descent share the first few cache lines, and a descent only does
+ * arithmetic on indexes.
+ * <p>
+ * Each slot has the first eight bytes of its word packed into a
+ * {@code long}, so most comparisons are a single unsigned comparison of two
+ * numbers and never read the word itself. The UTF-8 bytes of all words sit
+ * in one array, in slot order, for the rare comparisons that need them. The
+ * descent does not stop at a match: it always runs to a leaf, choosing each
+ * child with arithmetic rather than a jump, and the one slot that may hold
+ * the word is checked at the end.
+ * <p>
+ * Words are ordered by their UTF-8 bytes, which matches the order of
+ * {@link String#compareTo(String)} for every word without supplementary
+ * characters. Meanings live off the heap in a {@link MeaningStore}; the
+ * lookup frequencies of the words are kept in slot order, so that iterating
+ * hands them on. Reading is safe from any number of threads.
+ */
+final class FrozenDictionary implements Lexicon {
+
+    private final int count;
+    // Indexed by slot, from 1; slot 0 is unused.
+    private final long[] prefixes;
+    private final long[] meanings;
+    private final long[] frequencies;
+    // The bytes of slot i are at [offsets[i], offsets[i + 1]) of words.
+    private final int[] offsets;
+    private final byte[] words;
+    private final MeaningStore store = new MeaningStore();
+
+    /**
+     * Copies the words of a {@code Lexicon}.
+     *
+     * @param source the words to copy.
+     */
+    FrozenDictionary(Lexicon source) {
+        byte[][] keys = new byte[source.getCount()][];
+        long[] refs = new long[keys.length];
+        long[] counts = new long[keys.length];
+        int n = 0;
+        long bytes = 0;
+        for (WordInfo info : source) {
+            keys[n] = info.getWord().getBytes(StandardCharsets.UTF_8);
+            refs[n] = store.put(info.getMeaning());
+            counts[n] = info.getFrequency();
+            bytes += keys[n++].length;
+        }
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Words take more than 2 GB");
+        }
+        count = n;
+        if (n < keys.length) {
+            keys = Arrays.copyOf(keys, n);
+            refs = Arrays.copyOf(refs, n);
+            counts = Arrays.copyOf(counts, n);
+        }
+        sortByBytes(keys, refs, counts);
+        prefixes = new long[count + 1];
+        meanings = new long[count + 1];
+        frequencies = new long[count + 1];
+        offsets = new int[count + 2];
+        int[] slots = new int[count + 1];
+        fill(slots, 1, new int[1]);
+        words = new byte[(int) bytes];
+        int position = 0;
+        for (int slot = 1; slot <= count; slot++) {
+            byte[] key = keys[slots[slot]];
+            prefixes[slot] = prefix(key, 0, key.length);
+            meanings[slot] = refs[slots[slot]];
+            frequencies[slot] = counts[slots[slot]];
+            offsets[slot] = position;
+            System.arraycopy(key, 0, words, position, key.length);
+            position += key.length;
+        }
+        offsets[count + 1] = position;
+    }
+
+    @Override
+    public boolean exists(String word) {
+        return find(word) != 0;
+    }
+
+    @Override
+    public boolean exists(byte[] word, int offset, int length) {
+        return find(word, offset, length) != 0;
+    }
+
+    @Override
+    public String getMeaning(String word) {
+        int slot = find(word);
+        return slot == 0 ? null : store.get(meanings[slot]);
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public Iterator<WordInfo> iterator() {
+        return new Iterator<>() {
+            private int slot = leftmost(1);
+
+            @Override
+            public boolean hasNext() {
+                return slot != 0;
+            }
+
+            @Override
+            public WordInfo next() {
+                if (slot == 0) {
+                    throw new NoSuchElementException();
+                }
+                int current = slot;
+                if (2 * slot + 1 <= count) {
+                    slot = leftmost(2 * slot + 1);
+                } else {
+                    // Climb while coming from a right child, then once more.
+                    slot >>>= Integer.numberOfTrailingZeros(~slot) + 1;
+                }
+                return new WordInfo(word(current), store.get(meanings[current]), frequencies[current]);
+            }
+
+            private int leftmost(int slot) {
+                if (slot > count) {
+                    return 0;
+                }
+                while (2 * slot <= count) {
+                    slot *= 2;
+                }
+                return slot;
+            }
+        };
+    }
+
+    private int find(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) >= 0x80) {
+                byte[] bytes = CaseFolding.normalize(word).getBytes(StandardCharsets.UTF_8);
+                return find(bytes, 0, bytes.length);
+            }
+        }
+        long prefix = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            prefix = prefix << 8 | (i < word.length() ? CaseFolding.fold(word.charAt(i)) : 0);
+        }
+        int slot = 1;
+        while (slot <= count) {
+            long key = prefixes[slot];
+            int comp = key == prefix ? compareTail(slot, word) : Long.compareUnsigned(key, prefix);
+            slot = 2 * slot + (comp < 0 ? 1 : 0);
+        }
+        slot >>>= Integer.numberOfTrailingZeros(~slot) + 1;
+        return slot != 0 && prefixes[slot] == prefix && compareTail(slot, word) == 0 ? slot : 0;
+    }
+
+    private int find(byte[] word, int offset, int length) {
+        long prefix = prefix(word, offset, length);
+        int slot = 1;
+        while (slot <= count) {
+            long key = prefixes[slot];
+            int comp = key == prefix ? compareTail(slot, word, offset, length) : Long.compareUnsigned(key, prefix);
+            slot = 2 * slot + (comp < 0 ? 1 : 0);
+        }
+        // Undo the steps taken after the last left turn; that node is the
+        // first word not below the query.
+        slot >>>= Integer.numberOfTrailingZeros(~slot) + 1;
+        return slot != 0 && prefixes[slot] == prefix && compareTail(slot, word, offset, length) == 0 ? slot : 0;
+    }
+
+    /**
+     * Compares the word of a slot with an ASCII query whose first eight
+     * letters it already matches.
+     */
+    private int compareTail(int slot, String query) {
+        int start = offsets[slot];
+        int length = offsets[slot + 1] - start;
+        int common = Math.min(length, query.length());
+        for (int i = Long.BYTES; i < common; i++) {
+            int comp = (words[start + i] & 0xFF) - CaseFolding.fold(query.charAt(i));
+            if (comp != 0) {
+                return comp;
+            }
+        }
+        return length - query.length();
+    }
+
+    /**
+     * Compares the word of a slot with a query whose first eight bytes it
+     * already matches.
+     */
+    private int compareTail(int slot, byte[] query, int offset, int length) {
+        int start = offsets[slot];
+        int keyLength = offsets[slot + 1] - start;
+        int common = Math.min(keyLength, length);
+        for (int i = Long.BYTES; i < common; i++) {
+            int comp = (words[start + i] & 0xFF) - fold(query[offset + i]);
+            if (comp != 0) {
+                return comp;
+            }
+        }
+        return keyLength - length;
+    }
+
+    private String word(int slot) {
+        return new String(words, offsets[slot], offsets[slot + 1] - offsets[slot], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Packs the first eight bytes of a word, ASCII folded, into a number
+     * that orders as the bytes do. Shorter words are padded with zeros,
+     * which sort before every byte a word can hold.
+     */
+    private static long prefix(byte[] word, int offset, int length) {
+        long prefix = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            prefix = prefix << 8 | (i < length ? fold(word[offset + i]) : 0);
+        }
+        return prefix;
+    }
+
+    private static int fold(byte b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b & 0xFF;
+    }
+
+    /**
+     * Assigns the words, in ascending order, to the slots in the order of an
+     * in-order walk of the implicit tree.
+     */
+    private void fill(int[] slots, int slot, int[] next) {
+        if (slot <= count) {
+            fill(slots, 2 * slot, next);
+            slots[slot] = next[0]++;
+            fill(slots, 2 * slot + 1, next);
+        }
+    }
+
+    /**
+     * Puts words that arrive in {@code String} order into byte order. Both
+     * orders agree unless a word has a supplementary character, so this
+     * usually only checks.
+     */
+    private static void sortByBytes(byte[][] keys, long[] refs, long[] counts) {
+        int n = keys.length;
+        for (int i = 1; i < n; i++) {
+            if (Arrays.compareUnsigned(keys[i - 1], keys[i]) > 0) {
+                Integer[] order = new Integer[n];
+                for (int j = 0; j < n; j++) {
+                    order[j] = j;
+                }
+                Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keys[a], keys[b]));
+                byte[][] sortedKeys = new byte[n][];
+                long[] sortedRefs = new long[n];
+                long[] sortedCounts = new long[n];
+                for (int j = 0; j < n; j++) {
+                    sortedKeys[j] = keys[order[j]];
+                    sortedRefs[j] = refs[order[j]];
+                    sortedCounts[j] = counts[order[j]];
+                }
+                System.arraycopy(sortedKeys, 0, keys, 0, n);
+                System.arraycopy(sortedRefs, 0, refs, 0, n);
+                System.arraycopy(sortedCounts, 0, counts, 0, n);
+                return;
+            }
+        }
+    }
+}
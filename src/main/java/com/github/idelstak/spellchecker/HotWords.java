@@ -0,0 +1,221 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import com.github.idelstak.spellchecker.Dictionary.Node;
+
+/**
+ * The most frequently used words of a {@link Dictionary}, packed into a
+ * small table that is searched before the tree.
+ * <p>
+ * A descent of the tree touches about log2(n) nodes scattered over the heap,
+ * one cache miss each. Real text is dominated by a few hundred words, so
+ * finding those in a few adjacent array slots cuts the expected cost of a
+ * lookup far below that of a descent. The table maps each word to its node,
+ * which keeps the meaning and the frequency in one place.
+ * <p>
+ * The table is laid out once, from the frequencies counted so far, and is
+ * replaced rather than grown. A {@link Layout} finds the words of the next
+ * table a few nodes at a time, so that no lookup pays for a whole walk of
+ * the tree. Keys are hashed and compared with ASCII case
+ * folded on the fly, as in {@link LookupCache}.
+ */
+final class HotWords {
+
+    private final String[] keys;
+    private final int[] hashes;
+    private final Node[] nodes;
+    private final int mask;
+    private final int count;
+
+    /**
+     * @param hottest the nodes to keep, in any order.
+     * @param count the number of nodes to take from {@code hottest}.
+     */
+    HotWords(Node[] hottest, int count) {
+        // At most half full, so that probe sequences stay short.
+        int tableSize = Integer.highestOneBit(Math.max(1, count - 1)) << 2;
+        keys = new String[tableSize];
+        hashes = new int[tableSize];
+        nodes = new Node[tableSize];
+        mask = tableSize - 1;
+        this.count = count;
+        for (int n = 0; n < count; n++) {
+            String word = hottest[n].getWord();
+            int hash = word.hashCode();
+            int i = LookupCache.spread(hash) & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = word;
+            hashes[i] = hash;
+            nodes[i] = hottest[n];
+        }
+    }
+
+    /**
+     * @param query a value returned by {@link CaseFolding#prepare(String)}.
+     * @param hash the value of {@link LookupCache#hash(String)} for the
+     * query.
+     *
+     * @return the node of the query, or {@code null} if it is not a hot word.
+     */
+    Node find(String query, int hash) {
+        for (int i = LookupCache.spread(hash) & mask;; i = (i + 1) & mask) {
+            String key = keys[i];
+            if (key == null) {
+                return null;
+            }
+            if (hashes[i] == hash && CaseFolding.compare(query, key) == 0) {
+                return nodes[i];
+            }
+        }
+    }
+
+    /**
+     * Stops serving the specified word. {@link Dictionary} calls this for
+     * every word whose node leaves the tree or changes word.
+     *
+     * @param word the lowercase word.
+     */
+    void remove(String word) {
+        int hash = word.hashCode();
+        for (int i = LookupCache.spread(hash) & mask;; i = (i + 1) & mask) {
+            String key = keys[i];
+            if (key == null) {
+                return;
+            }
+            if (hashes[i] == hash && key.equals(word)) {
+                // The key stays so that later probe sequences still pass
+                // through; a null node reads as not hot.
+                nodes[i] = null;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the number of words the table was laid out with.
+     */
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * Walks a tree in steps and keeps the most frequent nodes it has passed,
+     * in a min-heap bounded by the capacity of the table.
+     * <p>
+     * Each node is ranked by its frequency when it was passed, which the heap
+     * keeps beside it, since lookups go on counting while the walk is under
+     * way. The tree must not change during the walk.
+     */
+    static final class Layout {
+
+        private final NodeUtil.InOrder walk;
+        private final Node[] nodes;
+        private final long[] frequencies;
+        private int size;
+
+        /**
+         * @param root the root of the tree to walk.
+         * @param capacity the number of words the table is to hold.
+         */
+        Layout(Node root, int capacity) {
+            walk = new NodeUtil.InOrder(root);
+            nodes = new Node[capacity];
+            frequencies = new long[capacity];
+        }
+
+        /**
+         * Passes at most the specified number of nodes.
+         *
+         * @param steps the number of nodes to pass.
+         *
+         * @return {@code true} if the walk is over.
+         */
+        boolean advance(int steps) {
+            for (int i = 0; i < steps && walk.hasNext(); i++) {
+                Node node = walk.next();
+                long frequency = node.getFrequency();
+                if (frequency == 0) {
+                    continue;
+                }
+                if (size < nodes.length) {
+                    nodes[size] = node;
+                    frequencies[size] = frequency;
+                    siftUp(size++);
+                } else if (frequencies[0] < frequency) {
+                    nodes[0] = node;
+                    frequencies[0] = frequency;
+                    siftDown(0);
+                }
+            }
+            return !walk.hasNext();
+        }
+
+        /**
+         * @return a table of the nodes kept so far.
+         */
+        HotWords build() {
+            return new HotWords(nodes, size);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (frequencies[parent] <= frequencies[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int least = i;
+                int left = 2 * i + 1;
+                if (left < size && frequencies[left] < frequencies[least]) {
+                    least = left;
+                }
+                if (left + 1 < size && frequencies[left + 1] < frequencies[least]) {
+                    least = left + 1;
+                }
+                if (least == i) {
+                    return;
+                }
+                swap(i, least);
+                i = least;
+            }
+        }
+
+        private void swap(int i, int j) {
+            Node node = nodes[i];
+            nodes[i] = nodes[j];
+            nodes[j] = node;
+            long frequency = frequencies[i];
+            frequencies[i] = frequencies[j];
+            frequencies[j] = frequency;
+        }
+    }
+}
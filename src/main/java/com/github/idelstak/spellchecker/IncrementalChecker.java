@@ -0,0 +1,441 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the misspellings of one document up to date as it is edited.
+ * <p>
+ * Words are tokenized as by {@link Tokenizer}: a word starts with a letter
+ * and goes on through letters, combining marks and apostrophes followed by a
+ * letter, in any script. An edit only re-tokenizes the words it
+ * touches, and a change to the {@link Dictionary} only re-evaluates the
+ * words it concerns, so neither has to rescan the document.
+ * <p>
+ * The text and the token table are both gap buffers whose gap follows the
+ * edits. The start of a token after the gap is stored relative to the end of
+ * the text, so an edit does not have to shift the tokens behind it. An edit
+ * therefore costs time in proportion to its own size and to the distance from
+ * the previous edit, which stays small while someone is typing. The spelling
+ * of a word is looked up once and kept in a table of the distinct words of
+ * the document, together with the number of times each occurs.
+ * <p>
+ * Instances are not thread-safe and must be used from the thread that
+ * changes the dictionary. If the lexicon is a {@link Dictionary}, call
+ * {@link #close()} to stop listening to it.
+ */
+final class IncrementalChecker implements AutoCloseable {
+
+    private final Lexicon lexicon;
+    private final DictionaryListener listener;
+    // The text, with a gap of unused characters at [gapStart, gapEnd).
+    private char[] text = new char[64];
+    private int gapStart;
+    private int gapEnd = text.length;
+    // The tokens, with a gap at [tokenGapStart, tokenGapEnd). Tokens after
+    // the gap store their start minus the length of the text.
+    private int[] starts = new int[16];
+    private int[] lengths = new int[16];
+    private Spelling[] spellings = new Spelling[16];
+    private int tokenGapStart;
+    private int tokenGapEnd = starts.length;
+    private final Map<String, Spelling> words = new HashMap<>();
+    private long misspellingCount;
+
+    /**
+     * Creates a checker for an empty document.
+     *
+     * @param lexicon the words considered correct. If it is a
+     * {@link Dictionary}, the checker follows its changes.
+     */
+    IncrementalChecker(Lexicon lexicon) {
+        this.lexicon = lexicon;
+        if (lexicon instanceof Dictionary dictionary) {
+            listener = new DictionaryListener() {
+                @Override
+                public void wordAdded(String word) {
+                    respell(word);
+                }
+
+                @Override
+                public void wordDeleted(String word) {
+                    respell(word);
+                }
+            };
+            dictionary.addListener(listener);
+        } else {
+            listener = null;
+        }
+    }
+
+    /**
+     * Replaces the whole text of the document.
+     *
+     * @param content the new text.
+     */
+    void setText(CharSequence content) {
+        edit(0, length(), content);
+    }
+
+    /**
+     * Applies an edit to the document and updates its misspellings.
+     *
+     * @param offset where the edit starts, in characters.
+     * @param removed the number of characters removed at {@code offset}.
+     * @param inserted the text inserted at {@code offset}, after the removal.
+     *
+     * @throws IndexOutOfBoundsException if the removed range is not within
+     * the text.
+     */
+    void edit(int offset, int removed, CharSequence inserted) {
+        int length = length();
+        if (offset < 0 || removed < 0 || offset > length - removed) {
+            throw new IndexOutOfBoundsException("Edit of " + removed + " characters at " + offset + " in a text of " + length);
+        }
+        // Widen the edit to the words it touches, which are the only ones
+        // that can change.
+        // Apostrophes are passed over too, since the edit may join or split
+        // the words on either side of one, and so are surrogates, since it
+        // may split a letter written as a pair of them.
+        int from = offset;
+        while (from > 0 && isWordOrJoiner(charAt(from - 1))) {
+            from--;
+        }
+        int to = offset + removed;
+        while (to < length && isWordOrJoiner(charAt(to))) {
+            to++;
+        }
+        int first = tokenIndex(from);
+        moveTokenGap(first, length);
+        while (tokenGapEnd < starts.length && starts[tokenGapEnd] + length < to) {
+            forget(spellings[tokenGapEnd]);
+            spellings[tokenGapEnd] = null;
+            tokenGapEnd++;
+        }
+        moveGap(offset);
+        gapEnd += removed;
+        ensureGap(inserted.length());
+        for (int i = 0; i < inserted.length(); i++) {
+            text[gapStart++] = inserted.charAt(i);
+        }
+        tokenize(from, to - removed + inserted.length());
+    }
+
+    /**
+     * @return the number of characters in the document
+     */
+    int length() {
+        return text.length - (gapEnd - gapStart);
+    }
+
+    /**
+     * @return the number of words in the document
+     */
+    int getTokenCount() {
+        return starts.length - (tokenGapEnd - tokenGapStart);
+    }
+
+    /**
+     * @return the number of words in the document not found in the lexicon
+     */
+    long getMisspellingCount() {
+        return misspellingCount;
+    }
+
+    /**
+     * @return the text of the document
+     */
+    String getText() {
+        return new String(text, 0, gapStart) + new String(text, gapEnd, text.length - gapEnd);
+    }
+
+    /**
+     * Lists the misspellings of the document.
+     * <p>
+     * Finding lines and columns takes one pass over the text, so this costs
+     * time linear in the size of the document. Offsets and columns count
+     * characters, not bytes.
+     *
+     * @return the misspellings, in the order of the text.
+     */
+    List<Misspelling> misspellings() {
+        List<Misspelling> found = new ArrayList<>();
+        int length = length();
+        long line = 1;
+        int lineStart = 0;
+        int scanned = 0;
+        for (int i = 0, count = getTokenCount(); i < count; i++) {
+            int p = physical(i);
+            if (!spellings[p].misspelled) {
+                continue;
+            }
+            int start = p < tokenGapStart ? starts[p] : starts[p] + length;
+            for (; scanned < start; scanned++) {
+                if (charAt(scanned) == '\n') {
+                    line++;
+                    lineStart = scanned + 1;
+                }
+            }
+            found.add(new Misspelling(substring(start, start + lengths[p]), line, start - lineStart + 1, start));
+        }
+        return found;
+    }
+
+    /**
+     * Stops following the changes of the dictionary.
+     */
+    @Override
+    public void close() {
+        if (listener != null) {
+            ((Dictionary) lexicon).removeListener(listener);
+        }
+    }
+
+    private void respell(String word) {
+        Spelling spelling = words.get(word);
+        if (spelling != null) {
+            boolean misspelled = !lexicon.exists(word);
+            if (misspelled != spelling.misspelled) {
+                spelling.misspelled = misspelled;
+                misspellingCount += misspelled ? spelling.count : -spelling.count;
+            }
+        }
+    }
+
+    /**
+     * Adds the tokens found in {@code [from, to)} at the token gap. The range
+     * must start and end at word boundaries.
+     */
+    private void tokenize(int from, int to) {
+        int i = from;
+        while (i < to) {
+            int c = codePointAt(i, to);
+            if (!isLetter(c)) {
+                i += Character.charCount(c);
+                continue;
+            }
+            int start = i;
+            while (i < to) {
+                c = codePointAt(i, to);
+                if (isWordPart(c)) {
+                    i += Character.charCount(c);
+                } else if (isApostrophe(c) && i + 1 < to && isLetter(codePointAt(i + 1, to))) {
+                    i++;
+                } else {
+                    break;
+                }
+            }
+            if (tokenGapStart == tokenGapEnd) {
+                growTokens();
+            }
+            starts[tokenGapStart] = start;
+            lengths[tokenGapStart] = i - start;
+            spellings[tokenGapStart] = remember(CaseFolding.normalize(substring(start, i)));
+            tokenGapStart++;
+        }
+    }
+
+    private Spelling remember(String word) {
+        Spelling spelling = words.get(word);
+        if (spelling == null) {
+            spelling = new Spelling(word, !lexicon.exists(word));
+            words.put(word, spelling);
+        }
+        spelling.count++;
+        if (spelling.misspelled) {
+            misspellingCount++;
+        }
+        return spelling;
+    }
+
+    private void forget(Spelling spelling) {
+        spelling.count--;
+        if (spelling.misspelled) {
+            misspellingCount--;
+        }
+        if (spelling.count == 0) {
+            words.remove(spelling.word);
+        }
+    }
+
+    /**
+     * Finds the first token that ends at or after the specified offset.
+     */
+    private int tokenIndex(int offset) {
+        int length = length();
+        int low = 0;
+        int high = getTokenCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int p = physical(mid);
+            int start = p < tokenGapStart ? starts[p] : starts[p] + length;
+            if (start + lengths[p] < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int physical(int index) {
+        return index < tokenGapStart ? index : index + (tokenGapEnd - tokenGapStart);
+    }
+
+    private void moveTokenGap(int index, int length) {
+        if (tokenGapStart == tokenGapEnd) {
+            growTokens();
+        }
+        while (tokenGapStart > index) {
+            tokenGapStart--;
+            tokenGapEnd--;
+            starts[tokenGapEnd] = starts[tokenGapStart] - length;
+            lengths[tokenGapEnd] = lengths[tokenGapStart];
+            spellings[tokenGapEnd] = spellings[tokenGapStart];
+            spellings[tokenGapStart] = null;
+        }
+        while (tokenGapStart < index) {
+            starts[tokenGapStart] = starts[tokenGapEnd] + length;
+            lengths[tokenGapStart] = lengths[tokenGapEnd];
+            spellings[tokenGapStart] = spellings[tokenGapEnd];
+            spellings[tokenGapEnd] = null;
+            tokenGapStart++;
+            tokenGapEnd++;
+        }
+    }
+
+    private void growTokens() {
+        int capacity = starts.length * 2;
+        int tail = starts.length - tokenGapEnd;
+        starts = regrow(starts, capacity, tail);
+        lengths = regrow(lengths, capacity, tail);
+        Spelling[] grown = new Spelling[capacity];
+        System.arraycopy(spellings, 0, grown, 0, tokenGapStart);
+        System.arraycopy(spellings, tokenGapEnd, grown, capacity - tail, tail);
+        spellings = grown;
+        tokenGapEnd = capacity - tail;
+    }
+
+    private int[] regrow(int[] array, int capacity, int tail) {
+        int[] grown = Arrays.copyOf(array, capacity);
+        System.arraycopy(array, array.length - tail, grown, capacity - tail, tail);
+        return grown;
+    }
+
+    private void moveGap(int offset) {
+        if (offset < gapStart) {
+            int count = gapStart - offset;
+            System.arraycopy(text, offset, text, gapEnd - count, count);
+            gapStart -= count;
+            gapEnd -= count;
+        } else if (offset > gapStart) {
+            int count = offset - gapStart;
+            System.arraycopy(text, gapEnd, text, gapStart, count);
+            gapStart += count;
+            gapEnd += count;
+        }
+    }
+
+    private void ensureGap(int needed) {
+        if (gapEnd - gapStart >= needed) {
+            return;
+        }
+        int tail = text.length - gapEnd;
+        char[] grown = new char[Math.max(text.length * 2, length() + needed + 64)];
+        System.arraycopy(text, 0, grown, 0, gapStart);
+        System.arraycopy(text, gapEnd, grown, grown.length - tail, tail);
+        text = grown;
+        gapEnd = grown.length - tail;
+    }
+
+    private char charAt(int index) {
+        return text[index < gapStart ? index : index + (gapEnd - gapStart)];
+    }
+
+    /**
+     * Reads the code point at an index, joining a surrogate pair that ends
+     * before {@code limit}; a lone surrogate reads as itself.
+     */
+    private int codePointAt(int index, int limit) {
+        char c = charAt(index);
+        if (Character.isHighSurrogate(c) && index + 1 < limit) {
+            char low = charAt(index + 1);
+            if (Character.isLowSurrogate(low)) {
+                return Character.toCodePoint(c, low);
+            }
+        }
+        return c;
+    }
+
+    private String substring(int from, int to) {
+        char[] chars = new char[to - from];
+        for (int i = from; i < to; i++) {
+            chars[i - from] = charAt(i);
+        }
+        return new String(chars);
+    }
+
+    private static boolean isLetter(int c) {
+        return c < 0x80 ? (c | 0x20) >= 'a' && (c | 0x20) <= 'z' : Character.isLetter(c);
+    }
+
+    private static boolean isWordPart(int c) {
+        if (isLetter(c)) {
+            return true;
+        }
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK || type == Character.ENCLOSING_MARK;
+    }
+
+    private static boolean isApostrophe(int c) {
+        return c == '\'' || c == '\u2019';
+    }
+
+    /**
+     * Tells whether a {@code char} may belong to a word or join two, which
+     * is what widening an edit has to pass over.
+     */
+    private static boolean isWordOrJoiner(char c) {
+        return isWordPart(c) || isApostrophe(c) || Character.isSurrogate(c);
+    }
+
+    /**
+     * The spelling of one distinct word of the document.
+     */
+    private static final class Spelling {
+
+        private final String word;
+        private boolean misspelled;
+        private int count;
+
+        Spelling(String word, boolean misspelled) {
+            this.word = word;
+            this.misspelled = misspelled;
+        }
+    }
+}
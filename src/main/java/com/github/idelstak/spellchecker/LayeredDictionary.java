@@ -0,0 +1,285 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A per-tenant view of a large shared word list.
+ * <p>
+ * The shared words stay in a base {@link Lexicon} that is never changed, so
+ * any number of tenants can stack their own views on one copy of it. A view
+ * records only what its tenant changed: the words it added, which also
+ * shadow base words it gave a meaning, and tombstones for the base words it
+ * deleted. Both live in {@link ConcurrentDictionary} instances, which cost
+ * nothing but a version object while empty. A lookup checks the additions,
+ * then the tombstones, then the base.
+ * <p>
+ * Readers never block, as in {@link ConcurrentDictionary}, and writers are
+ * serialized. A writer that touches both layers changes the additions
+ * first when a word appears and last when it disappears, so a concurrent
+ * reader sees every update either completely or not at all. The base must
+ * be safe to read from several threads if the view is.
+ * <p>
+ * {@link #rebase(Lexicon)} moves a view onto a new shared base, keeping only
+ * the changes that base lacks. {@link #compact()} builds such a base from a
+ * view, for changes that many tenants should share, such as an update of
+ * the word list rolled out through one view.
+ */
+final class LayeredDictionary implements Lexicon {
+
+    private final Lexicon base;
+    private final ConcurrentDictionary additions = new ConcurrentDictionary();
+    private final ConcurrentDictionary tombstones = new ConcurrentDictionary();
+    private volatile int count;
+    // Whether the base lists its words in String order; null until checked.
+    private volatile Boolean baseInOrder;
+
+    /**
+     * Creates a view with no changes yet.
+     *
+     * @param base the shared words; it must not change while the view is in
+     * use.
+     */
+    LayeredDictionary(Lexicon base) {
+        this.base = base;
+        count = base.getCount();
+    }
+
+    /**
+     * Adds a word, following the rules of
+     * {@link Dictionary#add(String, String)}. The base is left alone.
+     *
+     * @param word the word to add.
+     * @param meaning its meaning.
+     *
+     * @return {@code true} if the word was inserted, or replaced one without
+     * a definition; otherwise {@code false}.
+     */
+    synchronized boolean add(String word, String meaning) {
+        word = CaseFolding.normalize(word);
+        String current = getMeaning(word);
+        if (current != null && !Dictionary.isUndefined(current)) {
+            return false;
+        }
+        additions.add(word, meaning);
+        tombstones.delete(word);
+        if (current == null) {
+            count++;
+        }
+        return true;
+    }
+
+    /**
+     * Deletes a word from this view. A base word is hidden behind a
+     * tombstone.
+     *
+     * @param word the word to delete.
+     *
+     * @return {@code true} if the word was present; otherwise {@code false}.
+     */
+    synchronized boolean delete(String word) {
+        word = CaseFolding.normalize(word);
+        if (!exists(word)) {
+            return false;
+        }
+        if (base.exists(word)) {
+            tombstones.add(word, Dictionary.UNDEFINED_MEANING);
+        }
+        additions.delete(word);
+        count--;
+        return true;
+    }
+
+    @Override
+    public boolean exists(String word) {
+        return additions.exists(word) || !tombstones.exists(word) && base.exists(word);
+    }
+
+    @Override
+    public boolean exists(byte[] word, int offset, int length) {
+        return additions.exists(word, offset, length)
+                || !tombstones.exists(word, offset, length) && base.exists(word, offset, length);
+    }
+
+    @Override
+    public String getMeaning(String word) {
+        String meaning = additions.getMeaning(word);
+        if (meaning != null) {
+            return meaning;
+        }
+        return tombstones.exists(word) ? null : base.getMeaning(word);
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the number of additions and tombstones this view holds on top
+     * of its base.
+     */
+    int getOverlaySize() {
+        return additions.getCount() + tombstones.getCount();
+    }
+
+    /**
+     * @return the shared words under this view.
+     */
+    Lexicon getBase() {
+        return base;
+    }
+
+    /**
+     * Folds the changes of this view into a new version of the shared base.
+     * <p>
+     * The result copies every word, so it is meant to be built once and
+     * shared: hand it to {@link #rebase(Lexicon)} on every view that should
+     * move onto it, this one included, whose overlay then empties. A view
+     * that keeps the old base is not affected.
+     *
+     * @return a read-only base holding the words of this view.
+     */
+    synchronized Lexicon compact() {
+        WordInfo[] infos = new WordInfo[count];
+        int n = 0;
+        for (WordInfo info : this) {
+            infos[n++] = info;
+        }
+        return Dictionary.fromSorted(infos).freeze();
+    }
+
+    /**
+     * Stacks the changes of this view on another base. Additions the new
+     * base already holds with the same meaning, and tombstones for words it
+     * lacks, are dropped.
+     *
+     * @param base the new shared words.
+     *
+     * @return a view holding the words of the new base changed as this view
+     * changed its own.
+     */
+    synchronized LayeredDictionary rebase(Lexicon base) {
+        LayeredDictionary view = new LayeredDictionary(base);
+        for (WordInfo info : additions) {
+            if (!info.getMeaning().equals(base.getMeaning(info.getWord()))) {
+                if (!base.exists(info.getWord())) {
+                    view.count++;
+                }
+                view.additions.add(info.getWord(), info.getMeaning());
+            }
+        }
+        for (WordInfo info : tombstones) {
+            if (base.exists(info.getWord())) {
+                view.tombstones.add(info.getWord(), Dictionary.UNDEFINED_MEANING);
+                view.count--;
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Lists the words of this view in alphabetical order, merging the
+     * additions into the base words that are not deleted or shadowed.
+     * <p>
+     * The merge needs the base words in the order of
+     * {@link WordInfo#compareTo(WordInfo)} too. A {@link FrozenDictionary}
+     * lists them in the order of their UTF-8 bytes instead, which differs
+     * when supplementary characters meet characters from {@code U+E000} up,
+     * so the base is checked once and, if it is out of order, sorted into a
+     * copy on each call.
+     */
+    @Override
+    public Iterator<WordInfo> iterator() {
+        Iterator<WordInfo> baseWords = isBaseInOrder() ? base.iterator() : sortedBase();
+        Iterator<WordInfo> added = additions.iterator();
+        return new Iterator<>() {
+            private WordInfo nextBase = advanceBase();
+            private WordInfo nextAdded = added.hasNext() ? added.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextBase != null || nextAdded != null;
+            }
+
+            @Override
+            public WordInfo next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int comp = nextBase == null ? 1 : nextAdded == null ? -1 : nextBase.compareTo(nextAdded);
+                WordInfo info;
+                if (comp < 0) {
+                    info = nextBase;
+                } else {
+                    info = nextAdded;
+                    nextAdded = added.hasNext() ? added.next() : null;
+                }
+                if (comp <= 0) {
+                    nextBase = advanceBase();
+                }
+                return info;
+            }
+
+            private WordInfo advanceBase() {
+                while (baseWords.hasNext()) {
+                    WordInfo info = baseWords.next();
+                    if (!tombstones.exists(info.getWord())) {
+                        return info;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    private boolean isBaseInOrder() {
+        Boolean inOrder = baseInOrder;
+        if (inOrder == null) {
+            inOrder = Boolean.TRUE;
+            WordInfo previous = null;
+            for (WordInfo info : base) {
+                if (previous != null && previous.compareTo(info) >= 0) {
+                    inOrder = Boolean.FALSE;
+                    break;
+                }
+                previous = info;
+            }
+            baseInOrder = inOrder;
+        }
+        return inOrder;
+    }
+
+    private Iterator<WordInfo> sortedBase() {
+        WordInfo[] infos = new WordInfo[base.getCount()];
+        int n = 0;
+        for (WordInfo info : base) {
+            infos[n++] = info;
+        }
+        Arrays.sort(infos, 0, n);
+        return Arrays.asList(infos).subList(0, n).iterator();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A read-only view of a set of words and their meanings.
+ * <p>
+ * {@link Dictionary} is the mutable, tree-based implementation; other
+ * implementations trade mutability for a smaller or faster representation.
+ * All implementations store their words in lowercase and answer queries
+ * regardless of the case of the letters.
+ */
+interface Lexicon extends Iterable<WordInfo> {
+
+    /**
+     * Determines if the specified word is in this {@code Lexicon}.
+     *
+     * @param word the value sought.
+     *
+     * @return {@code true} if the word is present; otherwise {@code false}.
+     */
+    boolean exists(String word);
+
+    /**
+     * Determines if a word held as bytes is in this {@code Lexicon}.
+     * <p>
+     * This serves the spell-check path, which finds words in raw text and
+     * would otherwise create a {@code String} for each one. The default
+     * implementation does just that; implementations override it to compare
+     * the bytes in place.
+     *
+     * @param word holds the word in UTF-8; ASCII letters may be in any case,
+     * while other characters must be folded as by
+     * {@link CaseFolding#normalize(String)}.
+     * @param offset the index of the first byte.
+     * @param length the number of bytes.
+     *
+     * @return {@code true} if the word is present; otherwise {@code false}.
+     */
+    default boolean exists(byte[] word, int offset, int length) {
+        return exists(new String(word, offset, length, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the meaning of the specified word.
+     *
+     * @param word the word whose meaning is sought.
+     *
+     * @return the meaning, or {@code null} if the word is not present.
+     */
+    String getMeaning(String word);
+
+    /**
+     * @return the number of words in this {@code Lexicon}.
+     */
+    int getCount();
+}
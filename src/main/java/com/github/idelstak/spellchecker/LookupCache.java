@@ -0,0 +1,249 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size cache of recent lookups that sits in front of a
+ * {@link Dictionary}.
+ * <p>
+ * Word frequencies in real text follow Zipf's law, so a few hundred words
+ * make up most lookups. Keeping those words here lets a lookup skip the tree
+ * descent. Misses are cached as well, marked as absent, because a
+ * misspelling tends to be repeated too.
+ * <p>
+ * Entries live in parallel arrays, and an open addressing table with linear
+ * probing maps keys to them. When the cache is full, a CLOCK hand picks the
+ * entry to evict: it sweeps the entries, clearing the reference bit of each
+ * entry read since the last sweep, and evicts the first entry whose bit is
+ * already clear. This approximates LRU, but a hit only sets a bit.
+ * <p>
+ * Keys are hashed and compared with ASCII case folded on the fly, as in
+ * {@link CaseFolding#compare(String, String)}, so a hit creates no strings.
+ * Like {@link Dictionary}, a cache must not be used from more than one
+ * thread at a time. Lookups count as use, since they set reference bits.
+ */
+final class LookupCache {
+
+    private static final int EMPTY = -1;
+    private final String[] keys;
+    private final long[] meanings;
+    private final int[] hashes;
+    private final boolean[] referenced;
+    // Maps a hash to the index of its entry; EMPTY marks a free slot.
+    private final int[] table;
+    private final int mask;
+    private int count;
+    private int hand;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param capacity the largest number of words to keep.
+     *
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    LookupCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        keys = new String[capacity];
+        meanings = new long[capacity];
+        hashes = new int[capacity];
+        referenced = new boolean[capacity];
+        // At most half full, so that probe sequences stay short.
+        int tableSize = Integer.highestOneBit(Math.max(1, capacity - 1)) << 2;
+        table = new int[tableSize];
+        Arrays.fill(table, EMPTY);
+        mask = tableSize - 1;
+    }
+
+    /**
+     * Computes the hash of a query prepared by
+     * {@link CaseFolding#prepare(String)}. It equals the
+     * {@link String#hashCode()} of the lowercase word.
+     */
+    static int hash(String query) {
+        int h = 0;
+        for (int i = 0; i < query.length(); i++) {
+            h = 31 * h + CaseFolding.fold(query.charAt(i));
+        }
+        return h;
+    }
+
+    /**
+     * Looks up a query and counts a hit or a miss.
+     *
+     * @param query a value returned by {@link CaseFolding#prepare(String)}.
+     * @param hash the value of {@link #hash(String)} for the query.
+     *
+     * @return the index of the entry for the query, or {@code -1} if it is
+     * not cached.
+     */
+    int find(String query, int hash) {
+        for (int i = spread(hash) & mask;; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == EMPTY) {
+                misses++;
+                return -1;
+            }
+            if (hashes[entry] == hash && CaseFolding.compare(query, keys[entry]) == 0) {
+                referenced[entry] = true;
+                hits++;
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * @param entry an index returned by {@link #find(String, int)}.
+     *
+     * @return the reference of the cached meaning, or
+     * {@link MeaningStore#ABSENT} if the word is cached as missing.
+     */
+    long meaningAt(int entry) {
+        return meanings[entry];
+    }
+
+    /**
+     * Caches the result of a lookup, evicting an entry if the cache is full.
+     *
+     * @param key the lowercase word; it must not be cached yet.
+     * @param hash the value of {@link #hash(String)} for the word.
+     * @param meaning the reference of the meaning found for the word, or
+     * {@link MeaningStore#ABSENT} if it is missing.
+     */
+    void put(String key, int hash, long meaning) {
+        int entry;
+        if (count < keys.length) {
+            entry = count++;
+        } else {
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = hand + 1 == keys.length ? 0 : hand + 1;
+            }
+            entry = hand;
+            hand = hand + 1 == keys.length ? 0 : hand + 1;
+            unlink(entry);
+        }
+        keys[entry] = key;
+        meanings[entry] = meaning;
+        hashes[entry] = hash;
+        referenced[entry] = false;
+        int i = spread(hash) & mask;
+        while (table[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        table[i] = entry;
+    }
+
+    /**
+     * Drops whatever is cached for the specified word, so that the next
+     * lookup goes to the tree. {@link Dictionary} calls this for every word
+     * it adds or deletes.
+     *
+     * @param word the lowercase word.
+     */
+    void invalidate(String word) {
+        int hash = word.hashCode();
+        for (int i = spread(hash) & mask;; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == EMPTY) {
+                return;
+            }
+            if (hashes[entry] == hash && keys[entry].equals(word)) {
+                // The entry stays allocated with a clear reference bit, so
+                // the hand reuses it first; it only has to leave the table.
+                removeAt(i);
+                keys[entry] = null;
+                referenced[entry] = false;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drops every entry.
+     */
+    void clear() {
+        Arrays.fill(table, EMPTY);
+        Arrays.fill(keys, null);
+        Arrays.fill(referenced, false);
+        count = 0;
+        hand = 0;
+    }
+
+    int getCapacity() {
+        return keys.length;
+    }
+
+    long getHits() {
+        return hits;
+    }
+
+    long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the fraction of lookups answered by this cache, or zero if
+     * there were none.
+     */
+    double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    private void unlink(int entry) {
+        if (keys[entry] == null) {
+            return;
+        }
+        for (int i = spread(hashes[entry]) & mask;; i = (i + 1) & mask) {
+            if (table[i] == entry) {
+                removeAt(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Empties a table slot and moves later slots of the same probe run back
+     * into the hole, so that no lookup stops short of its entry.
+     */
+    private void removeAt(int hole) {
+        for (int i = (hole + 1) & mask; table[i] != EMPTY; i = (i + 1) & mask) {
+            int home = spread(hashes[table[i]]) & mask;
+            // Move the entry unless its home lies cyclically in (hole, i].
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                table[hole] = table[i];
+                hole = i;
+            }
+        }
+        table[hole] = EMPTY;
+    }
+
+    static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -23,25 +23,40 @@
 package com.github.idelstak.spellchecker;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.channels.FileChannel;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Scanner;
+import javax.management.JMException;
 import javax.swing.JFileChooser;
 
 public class Main {
 
     public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("check")) {
+            System.exit(BatchSpellCheck.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+        if (args.length > 0 && args[0].equals("serve")) {
+            System.exit(SpellCheckServer.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
         String filePath = System.getProperty("user.dir") + File.separator + "Words.txt";
-        String[] words = Files.lines(Paths.get(filePath)).toArray(String[]::new);
-        Dictionary dictionary = new Dictionary(words);
-        try ( Scanner scanner = new Scanner(System.in)) {
-            showMenu(scanner, dictionary);
+        // Words added or deleted through the menu are kept in Words.store, so
+        // Words.txt itself is never rewritten.
+        DictionaryStore store = DictionaryStore.open(Paths.get(filePath).resolveSibling("Words.store"), Paths.get(filePath));
+        if (DictionaryMetrics.ENABLED) {
+            try {
+                store.getDictionary().getMetrics().register("Words.txt");
+            } catch (JMException ex) {
+                System.err.println("Could not publish the dictionary metrics: " + ex.getMessage());
+            }
+        }
+        try ( store; Scanner scanner = new Scanner(System.in)) {
+            showMenu(scanner, store);
         }
     }
 
-    private static void showMenu(Scanner scanner, Dictionary dictionary) throws FileNotFoundException {
+    private static void showMenu(Scanner scanner, DictionaryStore store) throws IOException {
         System.out.println("""
                            
                            =====================
@@ -56,31 +71,33 @@ public class Main {
                             """);
         System.out.print("Please select an action [1..6]> ");
         if (scanner.hasNextInt()) {
-            processAction(dictionary, scanner, scanner.nextInt());
+            processAction(store, scanner, scanner.nextInt());
         } else {
             System.out.print("No action was selected. Continue (Y/N)? ");
             if (scanner.hasNext()) {
                 if (scanner.next().equalsIgnoreCase("n")) {
-                    doExit(dictionary, scanner);
+                    doExit(store, scanner);
                 }
             }
         }
     }
 
-    private static void doExit(Dictionary dictionary, Scanner scanner) throws FileNotFoundException {
+    private static void doExit(DictionaryStore store, Scanner scanner) throws IOException {
         System.out.print("Are you sure you want to exit (Y/N)? ");
         if (scanner.hasNext()) {
             String in = scanner.next();
             if (in.equalsIgnoreCase("y")) {
+                store.close();
                 System.out.println("Bye!");
                 System.exit(0);
             } else if (in.equalsIgnoreCase("n")) {
-                showMenu(scanner, dictionary);
+                showMenu(scanner, store);
             }
         }
     }
 
-    private static void processAction(Dictionary dictionary, Scanner scanner, int idx) throws FileNotFoundException {
+    private static void processAction(DictionaryStore store, Scanner scanner, int idx) throws IOException {
+        Dictionary dictionary = store.getDictionary();
         switch (idx) {
             case 1 -> {
                 System.out.print("Please type a word and its meaning separated by \":\" [word:meaning] > ");
@@ -98,10 +115,10 @@ public class Main {
                     System.out.print("Add \"%s\" with its meaning \"%s\" (Y/N)? ".formatted(word, meaning));
                     if (scanner.hasNext()) {
                         if (scanner.next().equalsIgnoreCase("y")) {
-                            dictionary.add(word, meaning);
+                            store.add(word, meaning);
                             System.out.println("\"%s\" was added to dictionary".formatted(word));
                         }
-                        showMenu(scanner, dictionary);
+                        showMenu(scanner, store);
                     }
                 }
             }
@@ -112,12 +129,12 @@ public class Main {
                     System.out.print("Are you sure you want to delete \"%s\" (Y/N)? ".formatted(wordToDelete));
                     if (scanner.hasNext()) {
                         if (scanner.next().equalsIgnoreCase("y")) {
-                            boolean deleted = dictionary.delete(wordToDelete);
+                            boolean deleted = store.delete(wordToDelete);
                             if (deleted) {
                                 System.out.println("\"%s\" was deleted successfully".formatted(wordToDelete));
                             }
                         }
-                        showMenu(scanner, dictionary);
+                        showMenu(scanner, store);
                     }
                 }
             }
@@ -135,7 +152,7 @@ public class Main {
                     } else {
                         System.out.println("\"%s\" hasn't been added to the dictionary yet".formatted(needsMeaning));
                     }
-                    showMenu(scanner, dictionary);
+                    showMenu(scanner, store);
                 }
             }
             case 4 -> {
@@ -144,7 +161,7 @@ public class Main {
                     if (scanner.next().equalsIgnoreCase("y")) {
                         dictionary.printDictionary();
                     }
-                    showMenu(scanner, dictionary);
+                    showMenu(scanner, store);
                 }
             }
             case 5 -> {
@@ -155,28 +172,22 @@ public class Main {
                         if (wordsInputFile == null) {
                             System.out.println("No file was selected.");
                         } else {
-                            Scanner in = new Scanner(wordsInputFile);
-                            in.useDelimiter("[^a-zA-Z]+");
-                            String[] wordsNotInDictionary;
-                            StringBuilder sb = new StringBuilder();
-                            while (in.hasNext()) {
-                                String wordFromFile = in.next();
-                                if (!dictionary.exists(wordFromFile)) {
-                                    sb.append(wordFromFile).append(";");
-                                }
-                            }
-                            wordsNotInDictionary = sb.toString().split(";");
-                            System.out.println("The following %d words from the file are not in the dictionary:".formatted(wordsNotInDictionary.length));
-                            for (String wordNotInDictionary : wordsNotInDictionary) {
-                                System.out.println(wordNotInDictionary);
+                            try ( FileChannel channel = FileChannel.open(wordsInputFile.toPath())) {
+                                System.out.println("The following words from the file are not in the dictionary:");
+                                SpellChecker.Summary summary = new SpellChecker(dictionary).check(channel, misspelling -> {
+                                    String[] suggestions = dictionary.suggest(misspelling.getWord(), Dictionary.MAX_SUGGESTION_DISTANCE, 3);
+                                    System.out.println("%s (line %d, column %d)%s".formatted(misspelling.getWord(), misspelling.getLine(), misspelling.getColumn(),
+                                            suggestions.length == 0 ? "" : " did you mean: " + String.join(", ", suggestions) + "?"));
+                                });
+                                System.out.println("%d of the %d words from the file are not in the dictionary.".formatted(summary.getMisspellings(), summary.getTokens()));
                             }
                         }
                     }
-                    showMenu(scanner, dictionary);
+                    showMenu(scanner, store);
                 }
             }
             case 6 ->
-                doExit(dictionary, scanner);
+                doExit(store, scanner);
             default ->
                 throw new AssertionError();
         }
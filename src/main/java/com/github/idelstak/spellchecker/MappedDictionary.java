@@ -0,0 +1,266 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32C;
+
+/**
+ * A read-only {@link Lexicon} served straight from a snapshot written by
+ * {@link DictionarySnapshot}.
+ * <p>
+ * The file is memory-mapped and searched in place: opening it costs a few
+ * header reads, and a lookup is a binary search that decodes keys on the fly
+ * without creating objects. Only the pages a lookup touches are ever read.
+ * Snapshots are limited to 2 GB.
+ */
+final class MappedDictionary implements Lexicon {
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final long checksum;
+    private final int keyOffsets;
+    private final int meaningOffsets;
+    private final int frequencies;
+    private final int keys;
+    private final int meanings;
+
+    private MappedDictionary(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < DictionarySnapshot.HEADER_LENGTH || buffer.getInt(0) != DictionarySnapshot.MAGIC) {
+            throw new IOException("Not a dictionary snapshot");
+        }
+        int version = buffer.getInt(4);
+        if (version != 1 && version != DictionarySnapshot.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        count = buffer.getInt(8);
+        long length = buffer.getLong(16);
+        checksum = buffer.getLong(24);
+        if (count < 0 || length != buffer.capacity() - DictionarySnapshot.HEADER_LENGTH) {
+            throw new IOException("Truncated dictionary snapshot");
+        }
+        keyOffsets = DictionarySnapshot.HEADER_LENGTH;
+        meaningOffsets = keyOffsets + 4 * (count + 1);
+        // Version 1 has no frequencies; they read as 0.
+        frequencies = version == 1 ? -1 : meaningOffsets + 4 * (count + 1);
+        keys = version == 1 ? meaningOffsets + 4 * (count + 1) : frequencies + 8 * count;
+        if (keys > buffer.capacity()) {
+            throw new IOException("Truncated dictionary snapshot");
+        }
+        meanings = keys + buffer.getInt(keyOffsets + 4 * count);
+        if (meanings + (long) buffer.getInt(meaningOffsets + 4 * count) != buffer.capacity()) {
+            throw new IOException("Truncated dictionary snapshot");
+        }
+    }
+
+    /**
+     * Maps a snapshot file.
+     * <p>
+     * Only the header is checked; see {@link #verify()} for a full check.
+     *
+     * @param path the snapshot file.
+     *
+     * @return a {@code MappedDictionary} over the file.
+     *
+     * @throws IOException if the file cannot be read or is not a snapshot.
+     */
+    static MappedDictionary open(Path path) throws IOException {
+        try ( FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshots are limited to 2 GB");
+            }
+            return new MappedDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Checks the data of the snapshot against its checksum.
+     * <p>
+     * This reads the whole file.
+     *
+     * @throws IOException if the data does not match the checksum.
+     */
+    void verify() throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(DictionarySnapshot.HEADER_LENGTH, buffer.capacity() - DictionarySnapshot.HEADER_LENGTH));
+        if (crc.getValue() != checksum) {
+            throw new IOException("Dictionary snapshot is corrupt");
+        }
+    }
+
+    @Override
+    public boolean exists(String word) {
+        return indexOf(word) >= 0;
+    }
+
+    /**
+     * Looks up a word held as UTF-8 bytes by comparing them straight against
+     * the UTF-8 keys, folding ASCII letters on the fly. The order of UTF-8
+     * bytes is that of code points, which is that of
+     * {@link String#compareTo(String)} except that the latter puts characters
+     * above U+FFFF before those from U+E000 to U+FFFF; the comparison swaps
+     * the two back where their lead bytes meet.
+     */
+    @Override
+    public boolean exists(byte[] word, int offset, int length) {
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int pos = keys + buffer.getInt(keyOffsets + 4 * mid);
+            int end = keys + buffer.getInt(keyOffsets + 4 * (mid + 1));
+            int comp = length - (end - pos);
+            for (int i = 0; i < length && pos + i < end; i++) {
+                int q = CaseFolding.fold((char) (word[offset + i] & 0xFF));
+                int k = buffer.get(pos + i) & 0xFF;
+                if (q != k) {
+                    // Bytes from 0xEE up only lead sequences of U+E000 and
+                    // above, and from 0xF0 up those above U+FFFF.
+                    comp = q >= 0xEE && k >= 0xEE && (q >= 0xF0) != (k >= 0xF0) ? k - q : q - k;
+                    break;
+                }
+            }
+            if (comp > 0) {
+                lo = mid + 1;
+            } else if (comp < 0) {
+                hi = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String getMeaning(String word) {
+        int index = indexOf(word);
+        return index < 0 ? null : meaning(index);
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public Iterator<WordInfo> iterator() {
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < count;
+            }
+
+            @Override
+            public WordInfo next() {
+                if (index >= count) {
+                    throw new NoSuchElementException();
+                }
+                WordInfo info = new WordInfo(decode(keys, keyOffsets, index), meaning(index), frequency(index));
+                index++;
+                return info;
+            }
+        };
+    }
+
+    private int indexOf(String word) {
+        String query = CaseFolding.prepare(word);
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int comp = compare(query, mid);
+            if (comp > 0) {
+                lo = mid + 1;
+            } else if (comp < 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares a query with a stored key, decoding the key's UTF-8 into
+     * UTF-16 units as it goes so that the order is that of
+     * {@link String#compareTo(String)}.
+     */
+    private int compare(String query, int index) {
+        int pos = keys + buffer.getInt(keyOffsets + 4 * index);
+        int end = keys + buffer.getInt(keyOffsets + 4 * (index + 1));
+        char low = 0;
+        for (int i = 0; i < query.length(); i++) {
+            char k;
+            if (low != 0) {
+                k = low;
+                low = 0;
+            } else if (pos >= end) {
+                return 1;
+            } else {
+                int b = buffer.get(pos++) & 0xFF;
+                if (b < 0x80) {
+                    k = (char) b;
+                } else if (b < 0xE0) {
+                    k = (char) ((b & 0x1F) << 6 | buffer.get(pos++) & 0x3F);
+                } else if (b < 0xF0) {
+                    k = (char) ((b & 0x0F) << 12 | (buffer.get(pos++) & 0x3F) << 6 | buffer.get(pos++) & 0x3F);
+                } else {
+                    int cp = (b & 0x07) << 18 | (buffer.get(pos++) & 0x3F) << 12 | (buffer.get(pos++) & 0x3F) << 6 | buffer.get(pos++) & 0x3F;
+                    k = Character.highSurrogate(cp);
+                    low = Character.lowSurrogate(cp);
+                }
+            }
+            char q = CaseFolding.fold(query.charAt(i));
+            if (q != k) {
+                return q - k;
+            }
+        }
+        return low != 0 || pos < end ? -1 : 0;
+    }
+
+    private long frequency(int index) {
+        return frequencies < 0 ? 0 : buffer.getLong(frequencies + 8 * index);
+    }
+
+    private String meaning(int index) {
+        String meaning = decode(meanings, meaningOffsets, index);
+        return meaning.isEmpty() ? Dictionary.UNDEFINED_MEANING : meaning;
+    }
+
+    private String decode(int section, int offsets, int index) {
+        int start = buffer.getInt(offsets + 4 * index);
+        byte[] bytes = new byte[buffer.getInt(offsets + 4 * (index + 1)) - start];
+        buffer.get(section + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Keeps the meanings of a {@link Dictionary} outside the Java heap.
+ * <p>
+ * Meanings are stored as UTF-8 in direct buffers, each prefixed with its
+ * length, and are addressed by a {@code long} reference: the index of the
+ * buffer in the upper half and the offset within it in the lower half. A
+ * node then holds only that reference. Meanings are decoded only when asked
+ * for, so lookups that only test whether a word exists never touch them.
+ * <p>
+ * Buffers are filled one after the other and never written over. Space given
+ * back by {@link #free(long)} is only counted; once it outweighs the live
+ * meanings, the owner copies the live meanings into a fresh store with
+ * {@link #copy(MeaningStore, long)} and drops this one. Every "Undefined
+ * word" shares the {@link #UNDEFINED} reference and takes no space at all.
+ * <p>
+ * Reading is safe from any number of threads; writing is not.
+ */
+final class MeaningStore {
+
+    /**
+     * The reference of the meaning {@value Dictionary#UNDEFINED_MEANING}.
+     */
+    static final long UNDEFINED = -1;
+    /**
+     * Never returned as a reference, so callers can use it to mean that there
+     * is no word at all.
+     */
+    static final long ABSENT = Long.MIN_VALUE;
+    private static final int MIN_SEGMENT = 1 << 12;
+    private static final int MAX_SEGMENT = 1 << 20;
+    private ByteBuffer[] segments = new ByteBuffer[4];
+    private int segmentCount;
+    private int position;
+    private long liveBytes;
+    private long freeBytes;
+
+    /**
+     * Stores a meaning.
+     *
+     * @param meaning the meaning.
+     *
+     * @return the reference of the meaning.
+     */
+    long put(String meaning) {
+        if (Dictionary.UNDEFINED_MEANING.equals(meaning)) {
+            return UNDEFINED;
+        }
+        return put(meaning.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a meaning.
+     *
+     * @param reference a value returned by {@link #put(String)}.
+     *
+     * @return the meaning.
+     */
+    String get(long reference) {
+        if (reference == UNDEFINED) {
+            return Dictionary.UNDEFINED_MEANING;
+        }
+        ByteBuffer segment = segments[(int) (reference >>> 32)];
+        int offset = (int) reference;
+        byte[] bytes = new byte[segment.getInt(offset)];
+        segment.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gives back the space of a meaning that is no longer referenced.
+     *
+     * @param reference a value returned by {@link #put(String)}.
+     */
+    void free(long reference) {
+        if (reference != UNDEFINED) {
+            long length = Integer.BYTES + segments[(int) (reference >>> 32)].getInt((int) reference);
+            liveBytes -= length;
+            freeBytes += length;
+        }
+    }
+
+    /**
+     * Copies a meaning out of another store without decoding it.
+     *
+     * @param source the store holding the meaning.
+     * @param reference the reference of the meaning in {@code source}.
+     *
+     * @return the reference of the copy in this store.
+     */
+    long copy(MeaningStore source, long reference) {
+        if (reference == UNDEFINED) {
+            return UNDEFINED;
+        }
+        ByteBuffer segment = source.segments[(int) (reference >>> 32)];
+        int offset = (int) reference;
+        byte[] bytes = new byte[segment.getInt(offset)];
+        segment.get(offset + Integer.BYTES, bytes);
+        return put(bytes);
+    }
+
+    /**
+     * @return whether freed space has come to outweigh the live meanings
+     */
+    boolean needsCompaction() {
+        return freeBytes > MAX_SEGMENT && freeBytes > liveBytes;
+    }
+
+    /**
+     * @return the number of bytes used by meanings still referenced
+     */
+    long getLiveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * @return the number of bytes given back by {@link #free(long)}
+     */
+    long getFreeBytes() {
+        return freeBytes;
+    }
+
+    private long put(byte[] bytes) {
+        int needed = Integer.BYTES + bytes.length;
+        if (segmentCount == 0 || position + needed > segments[segmentCount - 1].capacity()) {
+            addSegment(needed);
+        }
+        ByteBuffer segment = segments[segmentCount - 1];
+        int offset = position;
+        segment.putInt(offset, bytes.length);
+        segment.put(offset + Integer.BYTES, bytes);
+        position += needed;
+        liveBytes += needed;
+        return (long) (segmentCount - 1) << 32 | offset;
+    }
+
+    private void addSegment(int needed) {
+        int size = segmentCount == 0 ? MIN_SEGMENT : Math.min(MAX_SEGMENT, segments[segmentCount - 1].capacity() * 2);
+        if (segmentCount == segments.length) {
+            segments = Arrays.copyOf(segments, segmentCount * 2);
+        }
+        segments[segmentCount++] = ByteBuffer.allocateDirect(Math.max(size, needed));
+        position = 0;
+    }
+}
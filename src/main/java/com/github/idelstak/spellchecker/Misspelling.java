@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+/**
+ * A word found in a text but not in the {@link Lexicon} it was checked
+ * against.
+ */
+final class Misspelling {
+
+    private final String word;
+    private final long line;
+    private final long column;
+    private final long offset;
+
+    Misspelling(String word, long line, long column, long offset) {
+        this.word = word;
+        this.line = line;
+        this.column = column;
+        this.offset = offset;
+    }
+
+    /**
+     * @return the word, as it appears in the text
+     */
+    String getWord() {
+        return word;
+    }
+
+    /**
+     * @return the line of the word, starting at 1
+     */
+    long getLine() {
+        return line;
+    }
+
+    /**
+     * @return the column of the first letter of the word, in characters,
+     * starting at 1
+     */
+    long getColumn() {
+        return column;
+    }
+
+    /**
+     * @return the byte offset of the word from the start of the text
+     */
+    long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public String toString() {
+        return line + ":" + column + ":" + word;
+    }
+}
@@ -24,33 +24,54 @@ package com.github.idelstak.spellchecker;
 
 import com.github.idelstak.spellchecker.Dictionary.Node;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 class NodeUtil {
 
-    private Node[] nodeArr = new Node[]{};
-
-    Node[] toArr(Node root) {
-        nodeArr = new Node[]{};
-        inOrder(root);
-        return Arrays.copyOf(nodeArr, nodeArr.length);
+    private NodeUtil() {
     }
 
-    private void inOrder(Node node) {
-        if (node == null) {
-            return;
+    /**
+     * Walks a tree in ascending order.
+     * <p>
+     * An explicit stack holds the path of nodes whose left subtree is being
+     * visited, so the walk does linear work overall and never needs more
+     * stack than the height of the tree.
+     */
+    static final class InOrder implements Iterator<Node> {
+
+        private Node[] stack = new Node[16];
+        private int depth;
+
+        InOrder(Node root) {
+            pushLeft(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        @Override
+        public Node next() {
+            if (depth == 0) {
+                throw new NoSuchElementException();
+            }
+            Node node = stack[--depth];
+            stack[depth] = null;
+            pushLeft(node.getRight());
+            return node;
         }
-        inOrder(node.getLeft());
-        Node[] ns = append(node);
-        nodeArr = Arrays.copyOf(ns, ns.length);
-        inOrder(node.getRight());
-    }
 
-    private Node[] append(Node n) {
-        Node[] newArr = new Node[nodeArr.length + 1];
-        for (int i = 0; i < nodeArr.length; i++) {
-            newArr[i] = nodeArr[i];
+        private void pushLeft(Node node) {
+            while (node != null) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = node.getLeft();
+            }
         }
-        newArr[nodeArr.length] = n;
-        return newArr;
     }
 }
@@ -0,0 +1,311 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves spell checks over HTTP on the loopback interface.
+ * <p>
+ * Every request is handled on a thread of its own, a virtual thread when the
+ * JVM offers them (Java 21 and later) and a pooled platform thread otherwise.
+ * All requests share one read-only {@link Lexicon}. The endpoints take their
+ * texts as the body of a {@code POST}:
+ * <ul>
+ * <li>{@code /check}: the body is one text. The response lists its
+ * misspellings, one {@code line:column:word} per line.</li>
+ * <li>{@code /batch}: the body is any number of texts, each preceded by a line
+ * holding its length in bytes; blank lines between texts are ignored. The
+ * response holds, for each text in order, a line with the number of
+ * misspellings followed by those misspellings.</li>
+ * </ul>
+ * A batch is processed as a pipeline: each text is handed to a checker
+ * thread as soon as it has been read, so checking overlaps reading the rest
+ * of the request, and the results are written out in order as they become
+ * ready.
+ * <p>
+ * Usage: {@code serve [--dictionary <file>] [--port <n>]}, where the
+ * dictionary is read as by {@link BatchSpellCheck}.
+ */
+final class SpellCheckServer implements AutoCloseable {
+
+    static final int DEFAULT_PORT = 8080;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SpellChecker checker;
+
+    /**
+     * Binds a server to the loopback interface; call {@link #start()} to
+     * begin serving.
+     *
+     * @param lexicon the words considered correct; it must not change while
+     * the server runs.
+     * @param port the port to listen on, or {@code 0} for any free port.
+     *
+     * @throws IOException if the port cannot be bound.
+     */
+    SpellCheckServer(Lexicon lexicon, int port) throws IOException {
+        checker = new SpellChecker(lexicon);
+        executor = newThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext("/check", this::handleCheck);
+        server.createContext("/batch", this::handleBatch);
+    }
+
+    /**
+     * Runs the {@code serve} command, which serves until the JVM is stopped
+     * or the calling thread is interrupted.
+     * <p>
+     * Unless it is already set, this sets the system property
+     * {@code sun.net.httpserver.nodelay} to {@code true} for the whole JVM.
+     * Without {@code TCP_NODELAY}, a response written as headers then body
+     * waits out the client's delayed ACK, some 40 ms per request. The JDK
+     * reads the property once, when the first server is created, so code
+     * that creates a {@code SpellCheckServer} itself should set it first.
+     *
+     * @param args the arguments that follow {@code serve}.
+     *
+     * @return {@code 2} on bad usage, or {@code 0} once an interrupt has
+     * stopped the server.
+     *
+     * @throws IOException if the dictionary cannot be read or the port cannot
+     * be bound.
+     */
+    static int run(String[] args) throws IOException {
+        Path dictionaryPath = Paths.get(System.getProperty("user.dir"), "Words.txt");
+        int port = DEFAULT_PORT;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--dictionary" -> {
+                    if (++i == args.length) {
+                        return usage();
+                    }
+                    dictionaryPath = Paths.get(args[i]);
+                }
+                case "--port" -> {
+                    if (++i == args.length) {
+                        return usage();
+                    }
+                    try {
+                        port = Integer.parseInt(args[i]);
+                    } catch (NumberFormatException ex) {
+                        return usage();
+                    }
+                }
+                default -> {
+                    return usage();
+                }
+            }
+        }
+        Lexicon lexicon = dictionaryPath.toString().endsWith(".dict")
+                ? MappedDictionary.open(dictionaryPath)
+                : new DictionaryLoader().load(dictionaryPath).freeze();
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        SpellCheckServer server = new SpellCheckServer(lexicon, port);
+        Thread shutdownHook = new Thread(server::close);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        server.start();
+        System.err.println("Serving %d words on http://localhost:%d/".formatted(lexicon.getCount(), server.getPort()));
+        while (true) {
+            try {
+                Thread.sleep(Long.MAX_VALUE);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+                server.close();
+                return 0;
+            }
+        }
+    }
+
+    private static int usage() {
+        System.err.println("Usage: serve [--dictionary <file>] [--port <n>]");
+        return 2;
+    }
+
+    /**
+     * Creates an executor that runs each task on a new virtual thread, or, on
+     * a JVM without virtual threads, on a cached platform thread.
+     * <p>
+     * The virtual thread executor is looked up reflectively so that the
+     * project still builds and runs on Java 17.
+     */
+    static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "spellcheck-server");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    void start() {
+        server.start();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, lets the running ones finish for up to a
+     * second, and stops the threads.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+
+    private void handleCheck(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            StringBuilder out = new StringBuilder();
+            SpellChecker.Summary summary = checker.check(Channels.newChannel(exchange.getRequestBody()),
+                    misspelling -> out.append(misspelling).append('\n'));
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+            exchange.getResponseHeaders().set("X-Words", Long.toString(summary.getTokens()));
+            exchange.getResponseHeaders().set("X-Misspellings", Long.toString(summary.getMisspellings()));
+            byte[] body = out.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                exchange.getResponseBody().write(body);
+            }
+        }
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            InputStream in = new BufferedInputStream(exchange.getRequestBody(), 1 << 16);
+            while (true) {
+                long length = readLength(in);
+                if (length == -1) {
+                    break;
+                }
+                byte[] text = length < 0 || length > Integer.MAX_VALUE - 8 ? null : in.readNBytes((int) length);
+                if (text == null || text.length != length) {
+                    // The server keeps the connection open only if the body
+                    // has been read by the time the response is sent.
+                    in.close();
+                    exchange.sendResponseHeaders(400, -1);
+                    return;
+                }
+                results.add(CompletableFuture.supplyAsync(() -> check(text), executor));
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            for (CompletableFuture<String> result : results) {
+                try {
+                    out.write(result.join().getBytes(StandardCharsets.UTF_8));
+                } catch (CompletionException ex) {
+                    if (ex.getCause() instanceof UncheckedIOException io) {
+                        throw io.getCause();
+                    }
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private String check(byte[] text) {
+        StringBuilder out = new StringBuilder();
+        try {
+            SpellChecker.Summary summary = checker.check(Channels.newChannel(new ByteArrayInputStream(text)),
+                    misspelling -> out.append(misspelling).append('\n'));
+            return summary.getMisspellings() + "\n" + out;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Reads the line that precedes a text of a batch. A line ends with a
+     * line feed, which may follow a carriage return.
+     *
+     * @return the length it holds, {@code -1} at the end of the body, or
+     * {@code -2} if the line is not a length.
+     */
+    private static long readLength(InputStream in) throws IOException {
+        long length = 0;
+        int digits = 0;
+        while (true) {
+            int b = in.read();
+            if (b == '\r' && (b = in.read()) != '\n') {
+                return -2;
+            }
+            if (b == '\n') {
+                if (digits > 0) {
+                    return length;
+                }
+                // Blank lines between texts are allowed, so a text may end
+                // with a line feed of its own.
+                continue;
+            }
+            if (b == -1) {
+                return digits == 0 ? -1 : -2;
+            }
+            if (b < '0' || b > '9' || digits == 18) {
+                return -2;
+            }
+            length = length * 10 + (b - '0');
+            digits++;
+        }
+    }
+}
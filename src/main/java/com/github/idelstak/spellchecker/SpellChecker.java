@@ -0,0 +1,179 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Checks the spelling of a text against a {@link Lexicon}.
+ * <p>
+ * The text is read from a channel and checked as it streams by. Each
+ * misspelling is handed over as soon as it is found, so memory use stays
+ * constant however long the text or the list of misspellings is.
+ */
+final class SpellChecker {
+
+    private final Lexicon lexicon;
+    private final DictionaryMetrics metrics;
+
+    /**
+     * Creates a checker that records its throughput in the metrics of the
+     * lexicon, if it is a {@link Dictionary}.
+     */
+    SpellChecker(Lexicon lexicon) {
+        this(lexicon, lexicon instanceof Dictionary dictionary ? dictionary.getMetrics() : null);
+    }
+
+    /**
+     * @param lexicon the words considered correct.
+     * @param metrics where to record the words checked and the time taken, or
+     * {@code null} to record nothing.
+     */
+    SpellChecker(Lexicon lexicon, DictionaryMetrics metrics) {
+        this.lexicon = lexicon;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Checks every word read from the specified channel.
+     *
+     * @param channel the text; it is read to the end but not closed.
+     * @param sink receives each misspelling, in the order of the text.
+     *
+     * @return the counts gathered while checking.
+     *
+     * @throws IOException if the channel cannot be read.
+     */
+    Summary check(ReadableByteChannel channel, Consumer<Misspelling> sink) throws IOException {
+        long start = DictionaryMetrics.ENABLED ? System.nanoTime() : 0;
+        Tokenizer tokenizer = new Tokenizer(channel);
+        long tokens = 0;
+        long misspellings = 0;
+        while (tokenizer.next()) {
+            tokens++;
+            if (!tokenizer.isIn(lexicon)) {
+                misspellings++;
+                sink.accept(new Misspelling(tokenizer.token(), tokenizer.tokenLine(), tokenizer.tokenColumn(), tokenizer.tokenOffset()));
+            }
+        }
+        if (DictionaryMetrics.ENABLED && metrics != null) {
+            metrics.recordSpellCheck(tokens, System.nanoTime() - start);
+        }
+        return new Summary(tokens, misspellings, tokenizer.offset(), tokenizer.line(), tokenizer.column());
+    }
+
+    /**
+     * Returns the misspellings of the text read from the specified channel as
+     * a lazy stream.
+     * <p>
+     * The channel is read only as far as the stream is consumed. Read errors
+     * surface as {@link UncheckedIOException}.
+     *
+     * @param channel the text; it is not closed by the stream.
+     *
+     * @return the misspellings, in the order of the text.
+     */
+    Stream<Misspelling> misspellings(ReadableByteChannel channel) {
+        Tokenizer tokenizer = new Tokenizer(channel);
+        Spliterator<Misspelling> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Misspelling> action) {
+                try {
+                    while (tokenizer.next()) {
+                        if (!tokenizer.isIn(lexicon)) {
+                            action.accept(new Misspelling(tokenizer.token(), tokenizer.tokenLine(), tokenizer.tokenColumn(), tokenizer.tokenOffset()));
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * What a call to {@link #check(ReadableByteChannel, Consumer)} went
+     * through.
+     */
+    static final class Summary {
+
+        private final long tokens;
+        private final long misspellings;
+        private final long bytes;
+        private final long endLine;
+        private final long endColumn;
+
+        Summary(long tokens, long misspellings, long bytes, long endLine, long endColumn) {
+            this.tokens = tokens;
+            this.misspellings = misspellings;
+            this.bytes = bytes;
+            this.endLine = endLine;
+            this.endColumn = endColumn;
+        }
+
+        /**
+         * @return the number of words checked
+         */
+        long getTokens() {
+            return tokens;
+        }
+
+        /**
+         * @return the number of words not found
+         */
+        long getMisspellings() {
+            return misspellings;
+        }
+
+        /**
+         * @return the number of bytes read
+         */
+        long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return the line just past the end of the text, starting at 1
+         */
+        long getEndLine() {
+            return endLine;
+        }
+
+        /**
+         * @return the column just past the end of the text, starting at 1
+         */
+        long getEndColumn() {
+            return endColumn;
+        }
+    }
+}
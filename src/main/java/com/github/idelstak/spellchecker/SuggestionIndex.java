@@ -0,0 +1,401 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.util.Arrays;
+
+/**
+ * Finds the words closest to a misspelled one, after the symmetric delete
+ * algorithm of SymSpell.
+ * <p>
+ * Every word is indexed under each string that can be made by deleting up
+ * to {@link #getMaxDistance()} characters from its first
+ * {@link #PREFIX_LENGTH} characters. A query generates the same deletes for
+ * itself, and the words filed under them are the only ones that can be close
+ * enough; each is then confirmed with a bounded edit distance. No query ever
+ * scans the whole word list.
+ * <p>
+ * To stay compact the index stores hashes of the deletes rather than the
+ * deletes themselves. A hash collision can only add candidates, which the
+ * edit distance then rejects.
+ */
+final class SuggestionIndex {
+
+    static final int PREFIX_LENGTH = 7;
+    private final int maxDistance;
+    private String[] words = new String[1024];
+    private boolean[] removed = new boolean[1024];
+    private int count;
+    private int removedCount;
+    // Open addressing table from delete hash to the head of its posting list,
+    // stored plus one so that zero marks a free slot.
+    private int[] keys = new int[4096];
+    private int[] heads = new int[4096];
+    private int used;
+    private int[] postingWord = new int[4096];
+    private int[] postingNext = new int[4096];
+    private int postings;
+    private final char[] scratch = new char[PREFIX_LENGTH];
+
+    /**
+     * Creates an empty index.
+     *
+     * @param maxDistance the largest edit distance queries may ask for.
+     */
+    SuggestionIndex(int maxDistance) {
+        if (maxDistance < 0 || maxDistance >= PREFIX_LENGTH) {
+            throw new IllegalArgumentException("Unsupported edit distance " + maxDistance);
+        }
+        this.maxDistance = maxDistance;
+    }
+
+    int getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Adds a word to this index.
+     *
+     * @param word a lowercase word not already in the index.
+     */
+    void add(String word) {
+        if (count == words.length) {
+            words = Arrays.copyOf(words, count * 2);
+            removed = Arrays.copyOf(removed, count * 2);
+        }
+        int id = count++;
+        words[id] = word;
+        int length = Math.min(word.length(), PREFIX_LENGTH);
+        word.getChars(0, length, scratch, 0);
+        index(id, scratch, length, 0, maxDistance);
+    }
+
+    /**
+     * Removes a word from this index.
+     *
+     * @param word a lowercase word.
+     */
+    void remove(String word) {
+        int length = Math.min(word.length(), PREFIX_LENGTH);
+        word.getChars(0, length, scratch, 0);
+        int slot = slot(hash(scratch, length));
+        for (int p = heads[slot] - 1; p >= 0; p = postingNext[p] - 1) {
+            int id = postingWord[p];
+            if (!removed[id] && words[id].equals(word)) {
+                removed[id] = true;
+                removedCount++;
+                break;
+            }
+        }
+        if (removedCount > 1024 && removedCount > count - removedCount) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Finds the words closest to the specified one.
+     *
+     * @param word the word to find suggestions for.
+     * @param maxDistance the largest edit distance to accept.
+     * @param limit the largest number of suggestions to return.
+     * @param frequencies ranks words at the same distance; higher comes first.
+     *
+     * @return up to {@code limit} words, closest first; equally close words
+     * are ordered by frequency, then alphabetically.
+     */
+    String[] suggest(String word, int maxDistance, int limit, Frequencies frequencies) {
+        if (maxDistance < 0 || maxDistance > this.maxDistance) {
+            throw new IllegalArgumentException("Edit distance must be between 0 and " + this.maxDistance);
+        }
+        String query = CaseFolding.normalize(word);
+        Candidates candidates = new Candidates(query, maxDistance);
+        char[] chars = new char[PREFIX_LENGTH];
+        int length = Math.min(query.length(), PREFIX_LENGTH);
+        query.getChars(0, length, chars, 0);
+        collect(candidates, chars, length, 0, maxDistance);
+        return candidates.top(limit, frequencies);
+    }
+
+    private void index(int id, char[] chars, int length, int from, int deletes) {
+        post(hash(chars, length), id);
+        if (deletes == 0) {
+            return;
+        }
+        for (int i = from; i < length; i++) {
+            char removedChar = chars[i];
+            System.arraycopy(chars, i + 1, chars, i, length - i - 1);
+            index(id, chars, length - 1, i, deletes - 1);
+            System.arraycopy(chars, i, chars, i + 1, length - i - 1);
+            chars[i] = removedChar;
+        }
+    }
+
+    private void collect(Candidates candidates, char[] chars, int length, int from, int deletes) {
+        int hash = hash(chars, length);
+        int slot = slot(hash);
+        if (keys[slot] == hash) {
+            for (int p = heads[slot] - 1; p >= 0; p = postingNext[p] - 1) {
+                int id = postingWord[p];
+                if (!removed[id]) {
+                    candidates.offer(id, words[id]);
+                }
+            }
+        }
+        if (deletes == 0) {
+            return;
+        }
+        for (int i = from; i < length; i++) {
+            char removedChar = chars[i];
+            System.arraycopy(chars, i + 1, chars, i, length - i - 1);
+            collect(candidates, chars, length - 1, i, deletes - 1);
+            System.arraycopy(chars, i, chars, i + 1, length - i - 1);
+            chars[i] = removedChar;
+        }
+    }
+
+    private void post(int hash, int id) {
+        int slot = slot(hash);
+        if (keys[slot] == 0) {
+            keys[slot] = hash;
+            used++;
+        } else if (postingWord[heads[slot] - 1] == id) {
+            // The same delete reached through a different set of positions.
+            return;
+        }
+        if (postings == postingWord.length) {
+            postingWord = Arrays.copyOf(postingWord, postings * 2);
+            postingNext = Arrays.copyOf(postingNext, postings * 2);
+        }
+        postingWord[postings] = id;
+        postingNext[postings] = heads[slot];
+        heads[slot] = ++postings;
+        if (used * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    /**
+     * Finds the slot of a hash: the one holding it, or the free one where it
+     * belongs.
+     */
+    private int slot(int hash) {
+        int mask = keys.length - 1;
+        int slot = mix(hash) & mask;
+        while (keys[slot] != 0 && keys[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldHeads = heads;
+        keys = new int[oldKeys.length * 2];
+        heads = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                heads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    private void rebuild() {
+        String[] live = new String[count - removedCount];
+        int n = 0;
+        for (int id = 0; id < count; id++) {
+            if (!removed[id]) {
+                live[n++] = words[id];
+            }
+        }
+        words = new String[Math.max(1024, live.length)];
+        removed = new boolean[words.length];
+        count = 0;
+        removedCount = 0;
+        keys = new int[4096];
+        heads = new int[4096];
+        used = 0;
+        postings = 0;
+        for (String word : live) {
+            add(word);
+        }
+    }
+
+    /**
+     * Hashes a delete. Zero marks a free slot, so it is never returned.
+     */
+    private static int hash(char[] chars, int length) {
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ chars[i]) * 0x01000193;
+        }
+        hash = (hash ^ length) * 0x01000193;
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static int mix(int hash) {
+        hash *= 0x9E3779B1;
+        return hash ^ (hash >>> 15);
+    }
+
+    /**
+     * Computes the optimal string alignment distance between two words,
+     * giving up once it is bound to exceed {@code max}.
+     *
+     * @return the distance, or {@code max + 1} if it is larger than
+     * {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                char cb = b.charAt(j - 1);
+                int cost = ca == cb ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    /**
+     * Ranks words that are equally close to a query.
+     */
+    @FunctionalInterface
+    interface Frequencies {
+
+        Frequencies NONE = word -> 0;
+
+        /**
+         * @param word a word of the index.
+         *
+         * @return how often the word is used; higher ranks first.
+         */
+        long frequencyOf(String word);
+    }
+
+    /**
+     * The words confirmed to be close enough to a query, each kept once.
+     */
+    private static final class Candidates {
+
+        private final String query;
+        private final int maxDistance;
+        private int[] seen = new int[64];
+        private int seenCount;
+        private String[] words = new String[16];
+        private int[] distances = new int[16];
+        private int count;
+
+        Candidates(String query, int maxDistance) {
+            this.query = query;
+            this.maxDistance = maxDistance;
+        }
+
+        void offer(int id, String word) {
+            if (!markSeen(id)) {
+                return;
+            }
+            int distance = distance(query, word, maxDistance);
+            if (distance > maxDistance) {
+                return;
+            }
+            if (count == words.length) {
+                words = Arrays.copyOf(words, count * 2);
+                distances = Arrays.copyOf(distances, count * 2);
+            }
+            words[count] = word;
+            distances[count] = distance;
+            count++;
+        }
+
+        private boolean markSeen(int id) {
+            int mask = seen.length - 1;
+            int slot = mix(id + 1) & mask;
+            while (seen[slot] != 0) {
+                if (seen[slot] == id + 1) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            seen[slot] = id + 1;
+            if (++seenCount * 2 > seen.length) {
+                int[] old = seen;
+                seen = new int[old.length * 2];
+                seenCount = 0;
+                for (int value : old) {
+                    if (value != 0) {
+                        markSeen(value - 1);
+                    }
+                }
+            }
+            return true;
+        }
+
+        String[] top(int limit, Frequencies frequencies) {
+            Integer[] order = new Integer[count];
+            long[] weights = new long[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+                weights[i] = frequencies.frequencyOf(words[i]);
+            }
+            Arrays.sort(order, (x, y) -> {
+                if (distances[x] != distances[y]) {
+                    return Integer.compare(distances[x], distances[y]);
+                }
+                if (weights[x] != weights[y]) {
+                    return Long.compare(weights[y], weights[x]);
+                }
+                return words[x].compareTo(words[y]);
+            });
+            String[] top = new String[Math.min(limit, count)];
+            for (int i = 0; i < top.length; i++) {
+                top[i] = words[order[i]];
+            }
+            return top;
+        }
+    }
+}
@@ -0,0 +1,480 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * Splits the UTF-8 bytes of a channel into words.
+ * <p>
+ * A word starts with a letter, in any script, and goes on through letters
+ * and combining marks. An apostrophe, ASCII or typographic, stays inside a
+ * word when a letter follows it, as in {@code don't}, following the word
+ * boundary rules of Unicode (UAX #29). A hyphen does not, so
+ * {@code well-known} is two words. Everything else separates words. The input
+ * is read through one fixed buffer and words are handed out as slices of
+ * it; only a word cut in two by a read is copied, into a reusable array.
+ * Memory use thus does not depend on the size of the input, and a word only
+ * becomes a {@code String} if {@link #token()} is called. Lines and columns
+ * are tracked as the bytes go by: a column counts characters, so the
+ * continuation bytes of a UTF-8 sequence do not advance it.
+ * <p>
+ * The buffer is scanned eight bytes at a time (SWAR, SIMD within a
+ * register): a few additions and masks on a {@code long} classify all eight
+ * bytes at once as letters, line feeds or UTF-8 lead and continuation
+ * bytes. Byte by byte work is left for the few words where a class changes,
+ * and other characters than ASCII are only decoded where they occur, so
+ * English text is scanned as fast as if they could not.
+ */
+final class Tokenizer {
+
+    static final int BUFFER_SIZE = 1 << 16;
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    // Returned by codePointAt when a sequence goes on past the buffer.
+    private static final int STARVED = -2;
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private byte[] word = new byte[32];
+    // The current word folded for lookups, as UTF-16 and as UTF-8, when it
+    // is not all ASCII.
+    private char[] folded = new char[32];
+    private byte[] key = new byte[64];
+    // The current word: a slice of the buffer, or of word when it straddled
+    // two reads.
+    private byte[] slice;
+    private int start;
+    private int length;
+    private long line = 1;
+    // The offset at which the current line starts, and the number of UTF-8
+    // continuation bytes read since then; together they give the column.
+    private long lineStart;
+    private long continuations;
+    // The offset of the first byte of the buffer.
+    private long bufferStart;
+    private long tokenLine;
+    private long tokenColumn;
+    private long tokenOffset;
+    private boolean ascii;
+    // Set when a scan stopped at a character that the buffer only holds in
+    // part; the buffer must be topped up before scanning on.
+    private boolean starved;
+    // The length of the sequence decoded by the last call to codePointAt.
+    private int width;
+    private boolean eof;
+
+    Tokenizer(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+    }
+
+    /**
+     * Advances to the next word.
+     *
+     * @return {@code true} if a word was found; {@code false} at the end of
+     * the input.
+     *
+     * @throws IOException if the channel cannot be read.
+     */
+    boolean next() throws IOException {
+        length = 0;
+        ascii = true;
+        while (fill()) {
+            byte[] bytes = buffer.array();
+            int pos = buffer.position();
+            int limit = buffer.limit();
+            if (length == 0) {
+                pos = skipSeparators(bytes, pos, limit);
+                if (pos == limit || starved) {
+                    buffer.position(pos);
+                    continue;
+                }
+                tokenOffset = bufferStart + pos;
+                tokenLine = line;
+                tokenColumn = tokenOffset - lineStart - continuations + 1;
+            }
+            int end = endOfWord(bytes, pos, limit);
+            buffer.position(end);
+            boolean complete = end < limit && !starved;
+            if (complete && length == 0) {
+                slice = bytes;
+                start = pos;
+                length = end - pos;
+                return true;
+            }
+            // The word may go on in the next read, so it is kept aside.
+            if (length + end - pos > word.length) {
+                word = Arrays.copyOf(word, Math.max(word.length * 2, length + end - pos));
+            }
+            System.arraycopy(bytes, pos, word, length, end - pos);
+            length += end - pos;
+            slice = word;
+            start = 0;
+            if (complete) {
+                return true;
+            }
+        }
+        return length > 0;
+    }
+
+    /**
+     * Skips to the first letter at or after {@code pos}, counting lines and
+     * continuation bytes on the way.
+     *
+     * @return the index of the letter, or {@code limit} if there is none; or
+     * the index of a character the buffer only holds in part, with
+     * {@link #starved} set.
+     */
+    private int skipSeparators(byte[] bytes, int pos, int limit) {
+        while (pos < limit) {
+            while (pos + Long.BYTES <= limit) {
+                long w = (long) LONGS.get(bytes, pos);
+                long starts = letters(w) | leads(w);
+                if ((starts | newlines(w)) == 0) {
+                    continuations += Long.bitCount(continuations(w));
+                    pos += Long.BYTES;
+                    continue;
+                }
+                int stop = starts == 0 ? Long.BYTES : Long.numberOfTrailingZeros(starts) >>> 3;
+                for (int i = 0; i < stop; i++, pos++) {
+                    separator(bytes[pos], pos);
+                }
+                if (starts != 0) {
+                    break;
+                }
+            }
+            if (pos == limit) {
+                break;
+            }
+            byte b = bytes[pos];
+            if (isLetter(b)) {
+                return pos;
+            }
+            if (b >= 0) {
+                separator(b, pos++);
+                continue;
+            }
+            int cp = codePointAt(bytes, pos, limit);
+            if (cp == STARVED) {
+                starved = true;
+                return pos;
+            }
+            if (Character.isLetter(cp)) {
+                return pos;
+            }
+            for (int end = pos + width; pos < end; pos++) {
+                separator(bytes[pos], pos);
+            }
+        }
+        return limit;
+    }
+
+    private void separator(byte b, int pos) {
+        if (b == '\n') {
+            line++;
+            lineStart = bufferStart + pos + 1;
+            continuations = 0;
+        } else if ((b & 0xC0) == 0x80) {
+            continuations++;
+        }
+    }
+
+    /**
+     * @return the index of the first byte at or after {@code pos} that is not
+     * part of the current word, or {@code limit} if there is none; or the
+     * index of a character the buffer only holds in part, with
+     * {@link #starved} set
+     */
+    private int endOfWord(byte[] bytes, int pos, int limit) {
+        while (true) {
+            while (pos + Long.BYTES <= limit) {
+                long others = ~letters((long) LONGS.get(bytes, pos)) & HIGH_BITS;
+                if (others != 0) {
+                    pos += Long.numberOfTrailingZeros(others) >>> 3;
+                    break;
+                }
+                pos += Long.BYTES;
+            }
+            while (pos < limit && isLetter(bytes[pos])) {
+                pos++;
+            }
+            if (pos == limit) {
+                return limit;
+            }
+            int cp = codePointAt(bytes, pos, limit);
+            int taken = width;
+            if (cp == '\'' || cp == '\u2019') {
+                // Part of the word only if a letter follows.
+                int next = codePointAt(bytes, pos + taken, limit);
+                cp = next < 0 ? next : Character.isLetter(next) ? cp : -1;
+            } else if (cp >= 0 && (cp < 0x80 || !Character.isLetter(cp) && !isMark(cp))) {
+                cp = -1;
+            }
+            if (cp == STARVED) {
+                starved = true;
+                return pos;
+            }
+            if (cp < 0) {
+                return pos;
+            }
+            if (cp >= 0x80) {
+                ascii = false;
+                continuations += taken - 1;
+            }
+            pos += taken;
+        }
+    }
+
+    /**
+     * Decodes the character at {@code pos} and sets {@link #width} to its
+     * length in bytes.
+     *
+     * @return the code point; {@code -1} for a byte that does not start a
+     * valid sequence, or {@link #STARVED} if the sequence goes on past
+     * {@code limit} and the input does too.
+     */
+    private int codePointAt(byte[] bytes, int pos, int limit) {
+        width = 1;
+        if (pos >= limit) {
+            return eof ? -1 : STARVED;
+        }
+        if (bytes[pos] >= 0) {
+            return bytes[pos];
+        }
+        int n = CaseFolding.sequenceLength(bytes[pos]);
+        if (pos + n > limit) {
+            return eof ? -1 : STARVED;
+        }
+        int cp = CaseFolding.decode(bytes, pos, n);
+        if (cp >= 0) {
+            width = n;
+        }
+        return cp;
+    }
+
+    private static boolean isMark(int cp) {
+        int type = Character.getType(cp);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK || type == Character.ENCLOSING_MARK;
+    }
+
+    /**
+     * Marks the ASCII letters among eight bytes with the high bit of their
+     * byte. Setting bit 5 folds upper case onto lower case; the two sums then
+     * carry into the high bit exactly when the byte is at least {@code 'a'}
+     * and at least {@code 'z' + 1}. No sum can carry into the next byte,
+     * since the high bits are cleared first.
+     */
+    private static long letters(long w) {
+        long folded = (w | 0x20 * ONES) & ~HIGH_BITS;
+        long atLeastA = folded + (0x80 - 'a') * ONES;
+        long aboveZ = folded + (0x80 - 'z' - 1) * ONES;
+        return atLeastA & ~aboveZ & ~w & HIGH_BITS;
+    }
+
+    /**
+     * Marks the line feeds among eight bytes with the high bit of their
+     * byte, using the exact form of the zero byte test.
+     */
+    private static long newlines(long w) {
+        long x = w ^ '\n' * ONES;
+        return ~(((x & ~HIGH_BITS) + ~HIGH_BITS) | x) & HIGH_BITS;
+    }
+
+    /**
+     * Marks the bytes of the form {@code 11xxxxxx}, which start a UTF-8
+     * sequence of two bytes or more, among eight bytes with the high bit of
+     * their byte.
+     */
+    private static long leads(long w) {
+        return w & w << 1 & HIGH_BITS;
+    }
+
+    /**
+     * Marks the bytes of the form {@code 10xxxxxx} among eight bytes with
+     * the high bit of their byte.
+     */
+    private static long continuations(long w) {
+        return w & ~(w << 1) & HIGH_BITS;
+    }
+
+    private static boolean isLetter(byte b) {
+        return (b | 0x20) >= 'a' && (b | 0x20) <= 'z';
+    }
+
+    /**
+     * Reads more input once the buffer is used up, or when a scan stopped
+     * at a character it only holds in part. The bytes not yet consumed move
+     * to the front of the buffer first.
+     */
+    private boolean fill() throws IOException {
+        while (starved || !buffer.hasRemaining()) {
+            if (eof) {
+                starved = false;
+                return buffer.hasRemaining();
+            }
+            bufferStart += buffer.position();
+            buffer.compact();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0) {
+                eof = true;
+            }
+            starved = false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the current word, as it appears in the text, as a new
+     * {@code String}
+     */
+    String token() {
+        return new String(slice, start, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Looks the current word up.
+     * <p>
+     * An ASCII word is passed on as it is. Any other word is folded as by
+     * {@link CaseFolding#normalize(String)} into reusable arrays, and passed
+     * on as UTF-8 if {@link CaseFolding#isComposed(char[], int)} finds it in
+     * normalization form C, as it almost always is. Only a word that may
+     * have to be composed, such as a letter followed by a combining accent,
+     * creates a {@code String}.
+     *
+     * @param lexicon the words to look the current word up in.
+     *
+     * @return {@code true} if the lexicon holds the word.
+     */
+    boolean isIn(Lexicon lexicon) {
+        if (ascii) {
+            return lexicon.exists(slice, start, length);
+        }
+        if (folded.length < 2 * length) {
+            folded = new char[2 * length];
+        }
+        int n = 0;
+        for (int i = start; i < start + length; i += width) {
+            int cp = CaseFolding.fold(codePointAt(slice, i, start + length));
+            n += Character.toChars(cp, folded, n);
+        }
+        if (!CaseFolding.isComposed(folded, n)) {
+            return lexicon.exists(Normalizer.normalize(CharBuffer.wrap(folded, 0, n), Normalizer.Form.NFC));
+        }
+        if (key.length < 3 * n) {
+            key = new byte[3 * n];
+        }
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            int cp = Character.codePointAt(folded, i, n);
+            if (Character.isSupplementaryCodePoint(cp)) {
+                i++;
+            }
+            size = encode(cp, key, size);
+        }
+        return lexicon.exists(key, 0, size);
+    }
+
+    private static int encode(int cp, byte[] bytes, int pos) {
+        if (cp < 0x80) {
+            bytes[pos++] = (byte) cp;
+        } else if (cp < 0x800) {
+            bytes[pos++] = (byte) (0xC0 | cp >>> 6);
+            bytes[pos++] = (byte) (0x80 | cp & 0x3F);
+        } else if (cp < 0x10000) {
+            bytes[pos++] = (byte) (0xE0 | cp >>> 12);
+            bytes[pos++] = (byte) (0x80 | cp >>> 6 & 0x3F);
+            bytes[pos++] = (byte) (0x80 | cp & 0x3F);
+        } else {
+            bytes[pos++] = (byte) (0xF0 | cp >>> 18);
+            bytes[pos++] = (byte) (0x80 | cp >>> 12 & 0x3F);
+            bytes[pos++] = (byte) (0x80 | cp >>> 6 & 0x3F);
+            bytes[pos++] = (byte) (0x80 | cp & 0x3F);
+        }
+        return pos;
+    }
+
+    /**
+     * @return an array holding the UTF-8 bytes of the current word, as they
+     * appear in the text, from {@link #start()} on; it is overwritten by the
+     * next call to {@link #next()}
+     */
+    byte[] bytes() {
+        return slice;
+    }
+
+    /**
+     * @return the index of the current word in {@link #bytes()}
+     */
+    int start() {
+        return start;
+    }
+
+    int length() {
+        return length;
+    }
+
+    long tokenLine() {
+        return tokenLine;
+    }
+
+    long tokenColumn() {
+        return tokenColumn;
+    }
+
+    long tokenOffset() {
+        return tokenOffset;
+    }
+
+    /**
+     * @return the line of the next byte to be read
+     */
+    long line() {
+        return line;
+    }
+
+    /**
+     * @return the column of the next character to be read
+     */
+    long column() {
+        return offset() - lineStart - continuations + 1;
+    }
+
+    /**
+     * @return the number of bytes consumed so far
+     */
+    long offset() {
+        return bufferStart + buffer.position();
+    }
+}
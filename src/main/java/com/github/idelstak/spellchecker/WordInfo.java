@@ -26,10 +26,16 @@ class WordInfo implements Comparable<WordInfo> {
 
     private final String word;
     private final String meaning;
+    private final long frequency;
 
     WordInfo(String word, String meaning) {
+        this(word, meaning, 0);
+    }
+
+    WordInfo(String word, String meaning, long frequency) {
         this.word = word;
         this.meaning = meaning;
+        this.frequency = frequency;
     }
 
     /**
@@ -46,6 +52,13 @@ class WordInfo implements Comparable<WordInfo> {
         return meaning;
     }
 
+    /**
+     * @return how often the word is used, or {@code 0} if that is unknown
+     */
+    long getFrequency() {
+        return frequency;
+    }
+
     @Override
     public String toString() {
         return word + ":" + meaning;
@@ -0,0 +1,175 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentDictionaryTest {
+
+    private static final int STABLE = 1000;
+    private static final int WRITERS = 2;
+    private static final int READERS = 2;
+    private static final int UPDATES = 20_000;
+
+    @Test
+    void readersNeverSeeTornStateWhileWritersUpdate() throws InterruptedException {
+        ConcurrentDictionary dictionary = new ConcurrentDictionary();
+        for (int i = 0; i < STABLE; i++) {
+            dictionary.add(stable(i), "kept");
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Set<String>> written = new ArrayList<>();
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            Set<String> words = new HashSet<>();
+            written.add(words);
+            int id = w;
+            writers.add(start(failures, () -> {
+                Random random = new Random(id);
+                for (int i = 0; i < UPDATES; i++) {
+                    String word = "changing" + id + "x" + random.nextInt(500);
+                    if (random.nextBoolean()) {
+                        assertEquals(words.add(word), dictionary.add(word, "new"));
+                    } else {
+                        assertEquals(words.remove(word), dictionary.delete(word));
+                    }
+                }
+            }));
+        }
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(start(failures, () -> {
+                do {
+                    checkSnapshot(dictionary.snapshot());
+                    for (int i = 0; i < STABLE; i++) {
+                        String word = stable(i);
+                        byte[] bytes = word.toUpperCase().getBytes(StandardCharsets.UTF_8);
+                        assertTrue(dictionary.exists(word), word);
+                        assertTrue(dictionary.exists(bytes, 0, bytes.length), word);
+                        assertEquals("kept", dictionary.getMeaning(word));
+                    }
+                } while (writing.get());
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertTrue(failures.isEmpty(), () -> failures.peek().toString());
+
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < STABLE; i++) {
+            expected.add(stable(i));
+        }
+        written.forEach(expected::addAll);
+        Set<String> actual = new HashSet<>();
+        for (WordInfo info : dictionary) {
+            actual.add(info.getWord());
+        }
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), dictionary.getCount());
+    }
+
+    @Test
+    void snapshotIsNotAffectedByLaterUpdates() {
+        ConcurrentDictionary dictionary = new ConcurrentDictionary();
+        dictionary.add("apple", "fruit");
+        ConcurrentDictionary snapshot = dictionary.snapshot();
+        dictionary.add("banana", "fruit");
+        dictionary.delete("apple");
+
+        assertTrue(snapshot.exists("apple"));
+        assertTrue(!snapshot.exists("banana"));
+        assertEquals(1, snapshot.getCount());
+        assertTrue(dictionary.exists("banana"));
+        assertTrue(!dictionary.exists("apple"));
+    }
+
+    @Test
+    void findsWordsHeldAsBytes() {
+        ConcurrentDictionary dictionary = new ConcurrentDictionary();
+        dictionary.add("Café", "a place");
+        dictionary.add("don't", "do not");
+        byte[] text = "x CAFé don't".getBytes(StandardCharsets.UTF_8);
+
+        assertTrue(dictionary.exists(text, 2, 5));
+        assertTrue(dictionary.exists(text, 8, 5));
+        assertTrue(!dictionary.exists(text, 0, 1));
+    }
+
+    /**
+     * Checks that a snapshot is whole: its words come in strictly increasing
+     * order, there are as many as it counts, each of them can be found, and
+     * none of the words that are never changed is missing.
+     */
+    private static void checkSnapshot(ConcurrentDictionary snapshot) {
+        int size = 0;
+        int stable = 0;
+        String previous = null;
+        for (WordInfo info : snapshot) {
+            String word = info.getWord();
+            if (previous != null) {
+                assertTrue(previous.compareTo(word) < 0, previous + " before " + word);
+            }
+            assertTrue(snapshot.exists(word), word);
+            if (word.startsWith("stable")) {
+                stable++;
+            }
+            previous = word;
+            size++;
+        }
+        assertEquals(snapshot.getCount(), size);
+        assertEquals(STABLE, stable);
+    }
+
+    private static String stable(int i) {
+        return "stable" + i;
+    }
+
+    private static Thread start(ConcurrentLinkedQueue<Throwable> failures, Runnable task) {
+        Thread thread = new Thread(() -> {
+            try {
+                task.run();
+            } catch (Throwable ex) {
+                failures.add(ex);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DictionaryStoreTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void closeReturnsAfterARequestedCompaction() throws IOException {
+        Path wordList = wordList();
+        for (int run = 0; run < 40; run++) {
+            Path store = directory.resolve("store" + run);
+            DictionaryStore opened = DictionaryStore.open(store, wordList);
+            for (int i = 0; i < 50; i++) {
+                opened.add("word" + i, "meaning");
+            }
+            opened.compact();
+            assertTimeoutPreemptively(TIMEOUT, opened::close);
+            assertRecovered(store, wordList, 50);
+        }
+    }
+
+    @Test
+    void compactionsRequestedWhileOneRunsAreNotLost() throws IOException {
+        Path wordList = wordList();
+        Path store = directory.resolve("store");
+        DictionaryStore opened = DictionaryStore.open(store, wordList);
+        for (int i = 0; i < 50; i++) {
+            opened.add("word" + i, "meaning");
+            opened.compact();
+            opened.compact();
+        }
+        assertTimeoutPreemptively(TIMEOUT, opened::close);
+        assertTrue(opened.getGeneration() > 0);
+        assertRecovered(store, wordList, 50);
+    }
+
+    @Test
+    void frequenciesSurviveCompactionAndRestart() throws IOException {
+        Path wordList = directory.resolve("Words.txt");
+        Files.writeString(wordList, "banana:a fruit:5\ncherry:Undefined word:7\n");
+        Path store = directory.resolve("store");
+        try ( DictionaryStore opened = DictionaryStore.open(store, wordList)) {
+            opened.add("cherry", "a fruit");
+            opened.compact();
+        }
+        try ( DictionaryStore reopened = DictionaryStore.open(store, wordList)) {
+            assertEquals(5, reopened.getDictionary().getFrequency("banana"));
+            assertEquals(7, reopened.getDictionary().getFrequency("cherry"));
+            reopened.add("date", "a fruit");
+        }
+        try ( DictionaryStore reopened = DictionaryStore.open(store, wordList)) {
+            Dictionary dictionary = reopened.getDictionary();
+            assertEquals(5, dictionary.getFrequency("banana"));
+            assertEquals(0, dictionary.getFrequency("date"));
+            dictionary.enableHotWords(4);
+            for (int i = 0; i < 3; i++) {
+                assertTrue(dictionary.exists("banana"));
+            }
+        }
+        try ( DictionaryStore reopened = DictionaryStore.open(store, wordList)) {
+            assertEquals(8, reopened.getDictionary().getFrequency("banana"));
+            assertTrue(reopened.getDictionary().exists("date"));
+        }
+    }
+
+    private Path wordList() throws IOException {
+        Path wordList = directory.resolve("Words.txt");
+        Files.writeString(wordList, "apple:a fruit\n");
+        return wordList;
+    }
+
+    private static void assertRecovered(Path store, Path wordList, int added) throws IOException {
+        try ( DictionaryStore reopened = DictionaryStore.open(store, wordList)) {
+            Dictionary dictionary = reopened.getDictionary();
+            assertEquals(added + 1, dictionary.getCount());
+            for (int i = 0; i < added; i++) {
+                assertTrue(dictionary.exists("word" + i), "word" + i);
+            }
+            assertTrue(dictionary.exists("apple"));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FrozenDictionaryTest {
+
+    @Test
+    void iterationKeepsTheFrequencies() {
+        Lexicon frozen = new Dictionary(new String[]{"apple:fruit:5"}).freeze();
+
+        WordInfo info = frozen.iterator().next();
+
+        assertEquals("apple", info.getWord());
+        assertEquals("fruit", info.getMeaning());
+        assertEquals(5, info.getFrequency());
+    }
+
+    @Test
+    void frequenciesFollowTheWordsIntoByteOrder() {
+        // U+1D4B6 comes before U+FF41 as a String but after it as UTF-8.
+        String script = "x𝒶";
+        Lexicon frozen = new Dictionary(new String[]{
+            script + ":a letter:3", "xａ:a letter:9", "xa:a letter:1"
+        }).freeze();
+
+        Map<String, Long> frequencies = new HashMap<>();
+        for (WordInfo info : frozen) {
+            frequencies.put(info.getWord(), info.getFrequency());
+        }
+
+        assertEquals(Map.of(script, 3L, "xａ", 9L, "xa", 1L), frequencies);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotWordsTest {
+
+    @Test
+    void tableFollowsTrafficOneNodePerLookup() {
+        String[] words = new String[100];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = "word%03d".formatted(i);
+        }
+        Dictionary dictionary = new Dictionary(words);
+        dictionary.enableHotWords(2);
+        assertEquals(0, dictionary.getHotWords().getCount());
+
+        // The first walk starts with the first counted lookup and ends after
+        // as many lookups as there are words.
+        for (int i = 0; i < words.length; i++) {
+            assertTrue(dictionary.exists(i % 2 == 0 ? "word007" : "word042"));
+        }
+        HotWords hot = dictionary.getHotWords();
+        assertEquals(2, hot.getCount());
+        assertNotNull(hot.find(CaseFolding.prepare("word007"), LookupCache.hash("word007")));
+        assertNotNull(hot.find(CaseFolding.prepare("word042"), LookupCache.hash("word042")));
+        assertNull(hot.find(CaseFolding.prepare("word001"), LookupCache.hash("word001")));
+        assertEquals(50, dictionary.getFrequency("word007"));
+    }
+
+    @Test
+    void changeToTheTreeRestartsTheWalk() {
+        Dictionary dictionary = new Dictionary(new String[]{"apple", "banana", "cherry"});
+        dictionary.enableHotWords(1);
+        assertTrue(dictionary.exists("banana"));
+        assertTrue(dictionary.exists("banana"));
+        dictionary.delete("apple");
+        // A walk restarted after the delete passes the two words left.
+        assertTrue(dictionary.exists("banana"));
+        assertTrue(dictionary.exists("banana"));
+        HotWords hot = dictionary.getHotWords();
+        assertEquals(1, hot.getCount());
+        assertNotNull(hot.find(CaseFolding.prepare("banana"), LookupCache.hash("banana")));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IncrementalCheckerTest {
+
+    private static final String[] PIECES = {
+        "apple", "Apple", "pear", "don't", "don’t", "well-known", "naïve", "café", "Ωμέγα",
+        "𝒜", "𝒜b", "a𝒞", "😀", " ", " ", "\n", ", ", "'", "’", "-"
+    };
+
+    @Test
+    void agreesWithSpellCheckerThroughRandomEdits() throws IOException {
+        Dictionary dictionary = new Dictionary(new String[]{"apple", "don't", "naïve", "𝒜b", "ωμέγα"});
+        Random random = new Random(42);
+        try ( IncrementalChecker checker = new IncrementalChecker(dictionary)) {
+            for (int step = 0; step < 3000; step++) {
+                edit(checker, random);
+                assertEquals(expected(dictionary, checker.getText()), actual(checker), () -> checker.getText());
+            }
+        }
+    }
+
+    /**
+     * Inserts or deletes pieces at random, or swaps the second half of a
+     * surrogate pair for another, which is an edit that splits the pair.
+     */
+    private static void edit(IncrementalChecker checker, Random random) {
+        String text = checker.getText();
+        int choice = random.nextInt(4);
+        if (choice == 0 && text.length() > 0) {
+            int from = boundary(text, random.nextInt(text.length() + 1));
+            int to = boundary(text, Math.min(text.length(), from + random.nextInt(8)));
+            checker.edit(from, to - from, "");
+        } else if (choice == 1) {
+            int pair = text.indexOf('\uD835', random.nextInt(text.length() + 1));
+            if (pair >= 0) {
+                checker.edit(pair + 1, 1, random.nextBoolean() ? "\uDC9C" : "\uDC9E");
+            }
+        } else {
+            StringBuilder inserted = new StringBuilder();
+            for (int i = random.nextInt(3); i >= 0; i--) {
+                inserted.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+            checker.edit(boundary(text, random.nextInt(text.length() + 1)), 0, inserted);
+        }
+    }
+
+    private static int boundary(String text, int index) {
+        return index > 0 && index < text.length() && Character.isLowSurrogate(text.charAt(index)) ? index - 1 : index;
+    }
+
+    private static List<String> expected(Lexicon lexicon, String text) throws IOException {
+        List<String> found = new ArrayList<>();
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        new SpellChecker(lexicon).check(Channels.newChannel(new ByteArrayInputStream(bytes)),
+                misspelling -> found.add(misspelling.getLine() + ":" + misspelling.getWord()));
+        return found;
+    }
+
+    private static List<String> actual(IncrementalChecker checker) {
+        List<String> found = new ArrayList<>();
+        for (Misspelling misspelling : checker.misspellings()) {
+            found.add(misspelling.getLine() + ":" + misspelling.getWord());
+        }
+        assertEquals(found.size(), checker.getMisspellingCount());
+        return found;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LayeredDictionaryTest {
+
+    @Test
+    void compactedBaseIsSharedByTheViewsRebasedOntoIt() {
+        Lexicon base = new Dictionary(new String[]{"apple", "banana", "cherry"}).freeze();
+        LayeredDictionary publisher = new LayeredDictionary(base);
+        LayeredDictionary tenant = new LayeredDictionary(base);
+        publisher.add("date", "a fruit");
+        publisher.delete("banana");
+        tenant.add("kiwi", "a fruit");
+        tenant.delete("apple");
+
+        Lexicon shared = publisher.compact();
+        LayeredDictionary published = publisher.rebase(shared);
+        LayeredDictionary moved = tenant.rebase(shared);
+
+        assertEquals(3, shared.getCount());
+        assertEquals(0, published.getOverlaySize());
+        assertSame(shared, published.getBase());
+        assertSame(shared, moved.getBase());
+        assertEquals(2, moved.getOverlaySize());
+        assertTrue(moved.exists("date"));
+        assertTrue(moved.exists("kiwi"));
+        assertFalse(moved.exists("apple"));
+        assertFalse(moved.exists("banana"));
+        assertEquals(3, moved.getCount());
+        assertTrue(tenant.exists("banana"));
+    }
+
+    @Test
+    void wordsOfAFrozenBaseAreMergedInStringOrder() {
+        // A frozen base lists U+FF41 before U+1D4B6, whose UTF-8 starts with
+        // a higher byte, though its UTF-16 starts with a lower unit.
+        String script = "x\uD835\uDCB6";
+        Lexicon base = new Dictionary(new String[]{script, "x\uFF41"}).freeze();
+        LayeredDictionary view = new LayeredDictionary(base);
+        view.add("xz", "a word");
+        view.add("x\uFF42", "a word");
+
+        List<String> words = new ArrayList<>();
+        for (WordInfo info : view) {
+            words.add(info.getWord());
+        }
+        Lexicon shared = view.compact();
+
+        assertEquals(List.of("xz", script, "x\uFF41", "x\uFF42"), words);
+        assertEquals(4, shared.getCount());
+        assertTrue(shared.exists(script));
+        assertTrue(shared.exists("x\uFF42"));
+    }
+}
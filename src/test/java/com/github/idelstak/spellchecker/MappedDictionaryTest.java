@@ -0,0 +1,57 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedDictionaryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findsWordsHeldAsBytesInEveryPlane() throws IOException {
+        // String order puts U+1D49C before U+FF41, UTF-8 order after it.
+        String[] words = {"x", "xa", "xé", "x𝒜", "xａ", "xａ𝒜", "x😀", "xz"};
+        Path path = directory.resolve("words.dict");
+        DictionarySnapshot.write(new Dictionary(words), path);
+        MappedDictionary dictionary = MappedDictionary.open(path);
+
+        for (String word : words) {
+            byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+            assertTrue(dictionary.exists(bytes, 0, bytes.length), word);
+            // ASCII letters may come in any case; the rest comes folded.
+            bytes = word.replace('x', 'X').getBytes(StandardCharsets.UTF_8);
+            assertTrue(dictionary.exists(bytes, 0, bytes.length), word);
+        }
+        byte[] absent = "xａａ".getBytes(StandardCharsets.UTF_8);
+        assertFalse(dictionary.exists(absent, 0, absent.length));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ * Copyright © 2023 Hiram K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.idelstak.spellchecker;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SpellCheckServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private SpellCheckServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new SpellCheckServer(new Dictionary(new String[]{"the", "cat"}).freeze(), 0);
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+    }
+
+    @Test
+    void checkListsTheMisspellingsOfOneText() throws Exception {
+        HttpResponse<String> response = post("/check", "the cat\nthe xyzzy");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("2:5:xyzzy\n", response.body());
+        assertEquals("1", response.headers().firstValue("X-Misspellings").orElseThrow());
+    }
+
+    @Test
+    void checkAcceptsAnEmptyBody() throws Exception {
+        HttpResponse<String> response = post("/check", "");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("", response.body());
+    }
+
+    @Test
+    void batchAnswersEachTextInOrder() throws Exception {
+        HttpResponse<String> response = post("/batch", "7\nthe cat\n\n9\r\nxyzzy cat\n5\nqq qq");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("0\n1\n1:1:xyzzy\n2\n1:1:qq\n1:4:qq\n", response.body());
+    }
+
+    @Test
+    void batchAcceptsAnEmptyBody() throws Exception {
+        HttpResponse<String> response = post("/batch", "");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("", response.body());
+    }
+
+    @Test
+    void batchRejectsABadLengthLine() throws Exception {
+        assertEquals(400, post("/batch", "seven\nthe cat").statusCode());
+        assertEquals(400, post("/batch", "1\r2\nthe cat xyzzy").statusCode());
+        assertEquals(400, post("/batch", "9\nthe cat").statusCode());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}